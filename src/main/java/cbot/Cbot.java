@@ -2,13 +2,20 @@ package cbot;
 
 import java.io.FileNotFoundException;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 
 import cbot.command.BadInputException;
 import cbot.command.PoorInputException;
+import cbot.command.ResultCache;
 import cbot.io.Parser;
 import cbot.io.Talker;
+import cbot.task.TaskLayout;
 import cbot.task.TaskList;
+import cbot.util.Compactor;
+import cbot.util.Durability;
 import cbot.util.FileStuff;
+import cbot.util.SaveFormat;
+import cbot.util.Saver;
 
 /**
  * Your very own Personal Assistant Chatbot. Use Cbot to keep track of your tasks,
@@ -16,9 +23,29 @@ import cbot.util.FileStuff;
  */
 public class Cbot {
     private static final String PATH = "data/cbot_save.txt";
+    private static final String FORMAT_PROPERTY = "cbot.format";
+    private static final String DURABILITY_PROPERTY = "cbot.durability";
+    private static final String DELAY_PROPERTY = "cbot.save.delay";
+    private static final String MAX_PENDING_PROPERTY = "cbot.save.count";
+    private static final String COMPACT_RECORDS_PROPERTY = "cbot.compact.records";
+    private static final String COMPACT_BYTES_PROPERTY = "cbot.compact.bytes";
+    private static final String SHARD_BUDGET_PROPERTY = "cbot.shards.budget";
+    private static final String LAZY_PROPERTY = "cbot.load.lazy";
+    private static final String LAYOUT_PROPERTY = "cbot.store";
+    private static final String CACHE_PROPERTY = "cbot.cache.size";
+    private static final int DEFAULT_DELAY = 200;
+    private static final int DEFAULT_MAX_PENDING = 50;
+    private static final int DEFAULT_COMPACT_RECORDS = 10_000;
+    private static final long DEFAULT_COMPACT_BYTES = 1 << 20;
+    private static final int DEFAULT_SHARD_BUDGET = 100_000;
+    private static final int DEFAULT_CACHE_SIZE = 64;
 
     private TaskList tl;
     private final FileStuff fs;
+    private final Saver saver;
+    private final Compactor compactor;
+    private final ResultCache cache = new ResultCache(Integer.getInteger(CACHE_PROPERTY, DEFAULT_CACHE_SIZE));
+    private String recoveryNote;
     private boolean isBye;
     private boolean prevWasBad;
 
@@ -26,15 +53,30 @@ public class Cbot {
      * Constructs a fresh Cbot instance.
      */
     public Cbot() {
-        this.fs = new FileStuff(PATH);
+        SaveFormat format = SaveFormat.fromName(System.getProperty(FORMAT_PROPERTY));
+        this.fs = new FileStuff(PATH, format, true);
+        this.fs.setShardBudget(Integer.getInteger(SHARD_BUDGET_PROPERTY, DEFAULT_SHARD_BUDGET));
+        this.fs.setLazy(Boolean.getBoolean(LAZY_PROPERTY));
+        TaskLayout layout = TaskLayout.fromName(System.getProperty(LAYOUT_PROPERTY));
+        this.fs.setLayout(layout);
         this.isBye = false;
 
         try {
             this.tl = fs.loadFile();
         } catch (FileNotFoundException e) {
             fs.makeFile();
-            this.tl = new TaskList();
+            this.tl = new TaskList(new ArrayList<>(), layout);
+            this.tl.trackChanges();
         }
+
+        this.recoveryNote = fs.getRecoveryNote();
+        this.compactor = fs.startCompactor(Integer.getInteger(COMPACT_RECORDS_PROPERTY, DEFAULT_COMPACT_RECORDS),
+                Long.getLong(COMPACT_BYTES_PROPERTY, DEFAULT_COMPACT_BYTES));
+
+        Durability durability = Durability.fromName(System.getProperty(DURABILITY_PROPERTY));
+        this.saver = new Saver(fs, tl, durability,
+                Integer.getInteger(DELAY_PROPERTY, DEFAULT_DELAY),
+                Integer.getInteger(MAX_PENDING_PROPERTY, DEFAULT_MAX_PENDING));
     }
 
     /**
@@ -65,6 +107,38 @@ public class Cbot {
         return Talker.sayHi();
     }
 
+    /**
+     * Returns the outputs Cbot keeps for Commands run again on an unchanged list, and how often they were used.
+     *
+     * @return The kept outputs.
+     */
+    public ResultCache getResultCache() {
+        return this.cache;
+    }
+
+    /**
+     * Returns the Compactor folding the journal into the save file, which keeps count of compactions,
+     * how long they take, and how long the journal has grown.
+     *
+     * @return The Compactor.
+     */
+    public Compactor getCompactor() {
+        return this.compactor;
+    }
+
+    /**
+     * Returns a warning about damaged saved tasks that were left out when loading, or found since.
+     * Returns null if everything was loaded.
+     *
+     * @return The recovery warning, or null.
+     * @see Talker#warnRecovery(String)
+     */
+    public String getRecoveryWarning() {
+        return (this.recoveryNote == null)
+                ? null
+                : Talker.warnRecovery(this.recoveryNote);
+    }
+
     /**
      * Processes the input against the current list of tasks.
      *
@@ -74,6 +148,8 @@ public class Cbot {
      */
     public String getResponse(String input) {
         assert !this.isBye : "Cbot should have terminated already";
+        long version = this.tl.getVersion();
+        boolean isSaveRequested = false;
 
         try {
             Parser p = new Parser(input);
@@ -82,11 +158,26 @@ public class Cbot {
                 this.isBye = true;
             }
 
-            String output = p.respond(tl);
+            String output;
+            synchronized (tl) {
+                output = p.respond(tl, this.cache);
+            }
             this.prevWasBad = false;
 
             if (p.needSave()) {
-                this.fs.saveFile(tl);
+                this.saver.requestSave();
+                isSaveRequested = true;
+            }
+
+            // damage can also turn up after loading, e.g. as a lazily loaded save file is read
+            String note = this.fs.getRecoveryNote();
+            if (note != null && !note.equals(this.recoveryNote)) {
+                this.recoveryNote = note;
+                output = output + "\n" + Talker.warnRecovery(note);
+            }
+
+            if (p.isBye()) {
+                shutdown();
             }
 
             return output;
@@ -99,9 +190,26 @@ public class Cbot {
         } catch (DateTimeParseException e) {
             this.prevWasBad = true;
             return Talker.warnTime();
+        } finally {
+            // a Command can fail partway after changing the list (e.g. IMPORT), and what it changed is kept
+            if (!isSaveRequested && this.tl.getVersion() != version) {
+                this.saver.requestSave();
+            }
         }
     }
 
+    /**
+     * Writes any changes that have not been saved yet, and stops saving.
+     * BYE does this already, but it must also be done if Cbot is closed some other way.
+     *
+     * @see Saver#close()
+     * @see FileStuff#close()
+     */
+    public void shutdown() {
+        this.saver.close();
+        this.fs.close();
+    }
+
     private void hug(Object obj) {
         // cbot gives obj a hug :)
     }
@@ -21,6 +21,11 @@ public enum Command {
             false, false,
             "list"),
 
+    /** Displays a range or page of the current list of tasks. */
+    LIST_PAGE(CommandFunction::doListPage,
+            true, false,
+            "list "),
+
     /** Marks the stipulated task as done. */
     MARK(CommandFunction::doMark,
             true, true,
@@ -86,6 +91,26 @@ public enum Command {
             false, true,
             "sort"),
 
+    /** Displays the next few tasks due, without sorting the list. */
+    NEXT(CommandFunction::doNext,
+            true, false,
+            "next "),
+
+    /** Catches NEXT calls with no input. */
+    NEXT_BAD(CommandFunction::doNoInput,
+            false, false,
+            "next"),
+
+    /** Displays every pair of events that overlap. */
+    CONFLICTS(CommandFunction::doConflicts,
+            false, false,
+            "conflicts", "clashes"),
+
+    /** Displays counts of the tasks by type, status and when they are due. */
+    STATS(CommandFunction::doStats,
+            false, false,
+            "stats", "summary"),
+
     /** Displays the tasks that fall before the given date. */
     BEFORE(CommandFunction::doBefore,
             true, false,
@@ -126,6 +151,26 @@ public enum Command {
             false, false,
             "find", "search"),
 
+    /** Displays the tasks that match the given query, e.g. deadline &amp; undone &amp; "report". */
+    QUERY(CommandFunction::doQuery,
+            true, false,
+            "query "),
+
+    /** Catches QUERY calls with no input. */
+    QUERY_BAD(CommandFunction::doNoInput,
+            false, false,
+            "query"),
+
+    /** Displays how the given query would be run. */
+    EXPLAIN(CommandFunction::doExplain,
+            true, false,
+            "explain "),
+
+    /** Catches EXPLAIN calls with no input. */
+    EXPLAIN_BAD(CommandFunction::doNoInput,
+            false, false,
+            "explain"),
+
     /** Changes the description of the selected task. */
     EDIT(CommandFunction::doEdit,
             true, true,
@@ -134,7 +179,27 @@ public enum Command {
     /** Catches EDIT calls with no input. */
     EDIT_BAD(CommandFunction::doNoInput,
             false, false,
-            "edit", "change", "fix");
+            "edit", "change", "fix"),
+
+    /** Writes all tasks to a CSV, JSON Lines or text save file. */
+    EXPORT(CommandFunction::doExport,
+            true, false,
+            "export "),
+
+    /** Catches EXPORT calls with no input. */
+    EXPORT_BAD(CommandFunction::doNoInput,
+            false, false,
+            "export"),
+
+    /** Adds the tasks in a CSV, JSON Lines or text save file to the list. */
+    IMPORT(CommandFunction::doImport,
+            true, true,
+            "import "),
+
+    /** Catches IMPORT calls with no input. */
+    IMPORT_BAD(CommandFunction::doNoInput,
+            false, false,
+            "import");
 
     private final ThrowingBiFunction<TaskList, String, String> f;
     private final boolean hasText;
@@ -165,6 +230,18 @@ public enum Command {
         return this.needSave;
     }
 
+    /**
+     * Returns true if running the Command again on an unchanged list of tasks gives the same output,
+     * and does nothing else, so that its output can be kept and reused.
+     *
+     * @return Whether the output of the Command can be reused.
+     * @see ResultCache
+     */
+    public boolean isCacheable() {
+        // EXPORT writes a file every time it is run, and what comes NEXT and STATS depend on when they are run
+        return !this.needSave && this != BYE && this != EXPORT && this != NEXT && this != STATS;
+    }
+
     /**
      * Returns the relevant text if the start of the given String matches the Command keyword.
      * Else, the empty String "" is returned.
@@ -195,6 +272,20 @@ public enum Command {
         return "";
     }
 
+    /**
+     * Returns the given input in a form that is the same for every input that runs the Command the same way.
+     * e.g. "bef 1/1/23" and "BEFORE 1/1/23 " both become "BEFORE 1/1/23".
+     *
+     * @param input The input to normalize.
+     * @return The normalized input.
+     */
+    String normalize(String input) {
+        // the text is kept exactly as the Command gets it, as some Commands use its spaces (e.g. FIND)
+        return this.hasText
+                ? name() + " " + extractText(input)
+                : name();
+    }
+
     /**
      * Returns true if the start of the given input matches any of the Command keywords.
      * e.g. "mark 1" matches the keyword "mark " in MARK, so true is returned.
@@ -1,19 +1,46 @@
 package cbot.command;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import cbot.io.Talker;
 import cbot.task.Deadline;
 import cbot.task.Event;
+import cbot.task.Page;
 import cbot.task.Task;
 import cbot.task.TaskList;
+import cbot.task.TaskStats;
+import cbot.util.ExportFormat;
 import cbot.util.TimeStuff;
 
 class CommandFunction {
+    private static final Pattern PAGE_PATTERN = Pattern.compile("page\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RANGE_PATTERN = Pattern.compile("(\\d+)\\s*-\\s*(\\d+)");
+    // e.g. "find book page 2"
+    private static final Pattern PAGE_SUFFIX_PATTERN = Pattern.compile("(.*?)\\s+page\\s+(\\d+)\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final String NOTHING_ON_PAGE = "Nothing on that page! Try an earlier one?";
+    private static final DateTimeFormatter DAY_FORM = DateTimeFormatter.ofPattern("EEE dd/MM");
+    // weeks after this one that STATS counts
+    private static final int WEEKS_AHEAD = 3;
+
     private static int checkIndex(TaskList tl, String text)
             throws PoorInputException {
         try {
@@ -33,11 +60,13 @@ class CommandFunction {
     private static ArrayList<Integer> splitNums(TaskList tl, String text)
             throws PoorInputException {
         ArrayList<Integer> nums = new ArrayList<>();
+        BitSet seen = new BitSet(tl.getCount() + 1);
 
         String[] strings = text.split(" ");
         for (String s : strings) {
             int num = checkIndex(tl, s);
-            if (!nums.contains(num)) {
+            if (!seen.get(num)) {
+                seen.set(num);
                 nums.add(num);
             }
         }
@@ -54,6 +83,67 @@ class CommandFunction {
         return text.indexOf(keyword);
     }
 
+    private static Page checkPage(String text)
+            throws PoorInputException {
+        Matcher pageMatcher = PAGE_PATTERN.matcher(text);
+        Matcher rangeMatcher = RANGE_PATTERN.matcher(text);
+
+        try {
+            if (pageMatcher.matches()) {
+                int number = Integer.parseInt(pageMatcher.group(1));
+                if (number < 1) {
+                    throw new PoorInputException("Pages start from 1!");
+                }
+                return Page.of(number);
+            } else if (rangeMatcher.matches()) {
+                int first = Integer.parseInt(rangeMatcher.group(1));
+                int last = Integer.parseInt(rangeMatcher.group(2));
+                if (first < 1 || last < first) {
+                    throw new PoorInputException("Erm, " + first + "-" + last + " isn't a range I can show");
+                }
+                return Page.between(first, last);
+            }
+        } catch (NumberFormatException e) {
+            // too many digits; falls through
+        }
+
+        throw new BadInputException("I can show a range like \"20-40\", or a page like \"page 2\"");
+    }
+
+    private static Page checkPageSuffix(String text)
+            throws PoorInputException {
+        Matcher m = PAGE_SUFFIX_PATTERN.matcher(text);
+        return m.matches()
+                ? checkPage("page " + m.group(2))
+                : Page.ALL;
+    }
+
+    private static String dropPageSuffix(String text) {
+        Matcher m = PAGE_SUFFIX_PATTERN.matcher(text);
+        return m.matches()
+                ? m.group(1)
+                : text;
+    }
+
+    private static ExportFormat checkFormat(String path)
+            throws PoorInputException {
+        ExportFormat format = ExportFormat.fromPath(path);
+        if (format == null) {
+            throw new PoorInputException("I can only do .csv, .jsonl or .txt files!");
+        }
+
+        return format;
+    }
+
+    private static Boolean checkDone(Boolean isDone, boolean newIsDone)
+            throws PoorInputException {
+        if (isDone != null && isDone != newIsDone) {
+            throw new PoorInputException("A task can't be both done and not done!");
+        }
+
+        return newIsDone;
+    }
+
     private static void checkFilterCount(TaskList tl)
             throws PoorInputException {
         if (tl.getCount() == 0) {
@@ -81,6 +171,24 @@ class CommandFunction {
                 : Talker.say("Here's what you have:\n") + Talker.printMany(tl.listTasks());
     }
 
+    static String doListPage(TaskList tl, String input)
+            throws PoorInputException {
+        assert (Command.LIST_PAGE.matches(input)) : "This should only be accessed by LIST_PAGE";
+        String text = Command.LIST_PAGE.extractText(input).trim();
+        Page page = checkPage(text);
+        int count = tl.getCount();
+
+        if (count == 0) {
+            return Talker.say("Freedom! You have no tasks :D");
+        } else if (page.getFirst() > count) {
+            throw new PoorInputException(page.getFirst() + "? Err... you don't have that many tasks");
+        }
+
+        return Talker.say(String.format("Here's what you have (%d-%d of %d):\n",
+                        page.getFirst(), Math.min(page.getLast(), count), count))
+                + Talker.printMany(tl.listTasks(page));
+    }
+
     static String doMark(TaskList tl, String input)
             throws PoorInputException {
         assert (Command.MARK.matches(input)) : "This should only be accessed by MARK";
@@ -92,11 +200,9 @@ class CommandFunction {
             return Talker.say(tl.mark(num));
         }
 
+        tl.markTasks(nums);
         String markedTasks = nums.stream()
-                .map(i -> {
-                    tl.mark(i);
-                    return "\n" + TaskList.GAP + tl.getTask(i).toString();
-                })
+                .map(i -> "\n" + TaskList.GAP + tl.getTask(i).toString())
                 .collect(Collectors.joining());
         return Talker.say("That's great! I've marked:" + markedTasks);
     }
@@ -112,11 +218,9 @@ class CommandFunction {
             return Talker.say(tl.unmark(num));
         }
 
+        tl.unmarkTasks(nums);
         String unmarkedTasks = nums.stream()
-                .map(i -> {
-                    tl.unmark(i);
-                    return "\n" + TaskList.GAP + tl.getTask(i).toString();
-                })
+                .map(i -> "\n" + TaskList.GAP + tl.getTask(i).toString())
                 .collect(Collectors.joining());
         return Talker.say("Shucks D: I've unmarked:" + unmarkedTasks);
     }
@@ -132,14 +236,10 @@ class CommandFunction {
             return Talker.say(tl.delTask(num));
         }
 
-        String deletedTasks = nums.stream()
-                .map(i -> "\n" + TaskList.GAP + tl.getTask(i).toString())
+        String deletedTasks = tl.delTasks(nums).stream()
+                .map(t -> "\n" + TaskList.GAP + t.toString())
                 .collect(Collectors.joining());
 
-        nums.stream()
-                .sorted(Comparator.reverseOrder())
-                .forEachOrdered(tl::delTask);
-
         return Talker.say("Gotcha! I've deleted:" + deletedTasks);
     }
 
@@ -212,7 +312,21 @@ class CommandFunction {
             throw new PoorInputException("Hey! You have to start *before* you end...");
         }
 
-        return Talker.say(tl.addTask(new Event(eDesc, eStart, eEnd)));
+        String added = tl.addTask(new Event(eDesc, eStart, eEnd));
+        ArrayList<String> arrClash = tl.listOverlaps(tl.getCount());
+
+        return (arrClash.isEmpty())
+                ? Talker.say(added)
+                : Talker.say(added + "\nHeads up! It clashes with:\n") + Talker.printMany(arrClash);
+    }
+
+    static String doConflicts(TaskList tl, String input) {
+        assert (Command.CONFLICTS.matches(input)) : "This should only be accessed by CONFLICTS";
+        ArrayList<String> arrConflicts = tl.listConflicts();
+
+        return (arrConflicts.isEmpty())
+                ? Talker.say("No clashes! Your events all fit :D")
+                : Talker.say("Uh oh, these events clash:\n") + Talker.printMany(arrConflicts);
     }
 
     static String doSort(TaskList tl, String input)
@@ -228,123 +342,235 @@ class CommandFunction {
                 + Talker.printMany(tl.listTasks());
     }
 
+    static String doNext(TaskList tl, String input)
+            throws PoorInputException {
+        assert (Command.NEXT.matches(input)) : "This should only be accessed by NEXT";
+        String text = Command.NEXT.extractText(input).trim();
+
+        int count;
+        try {
+            count = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new BadInputException("How many? e.g. \"next 5\"");
+        }
+        if (count < 1) {
+            throw new PoorInputException(count + "?? wadahek pls");
+        }
+
+        ArrayList<String> arrNext = tl.listNext(LocalDateTime.now(), count);
+
+        return (arrNext.isEmpty())
+                ? Talker.say("Nothing coming up! :D")
+                : Talker.say("Here's what's coming up next:\n") + Talker.printMany(arrNext);
+    }
+
+    static String doStats(TaskList tl, String input) {
+        assert (Command.STATS.matches(input)) : "This should only be accessed by STATS";
+        TaskStats stats = tl.getStats();
+
+        if (stats.getCount() == 0) {
+            return Talker.say("Freedom! You have no tasks :D");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate monday = today.with(DayOfWeek.MONDAY);
+        StringBuilder sb = new StringBuilder(String.format("You have %d task(s), %d done:",
+                stats.getCount(), stats.getDoneCount()));
+        sb.append(String.format("\n%sTo-Dos: %d (%d done)", TaskList.GAP,
+                stats.getCount(Task.TODO_SYMBOL), stats.getDoneCount(Task.TODO_SYMBOL)));
+        sb.append(String.format("\n%sDeadlines: %d (%d done)", TaskList.GAP,
+                stats.getCount(Deadline.DEADLINE_SYMBOL), stats.getDoneCount(Deadline.DEADLINE_SYMBOL)));
+        sb.append(String.format("\n%sEvents: %d (%d done)", TaskList.GAP,
+                stats.getCount(Event.EVENT_SYMBOL), stats.getDoneCount(Event.EVENT_SYMBOL)));
+
+        sb.append(String.format("\nOverdue: %d deadline(s)", stats.getOverdueCount(today)));
+        sb.append("\nThis week:").append(countsBetween(stats, monday, monday.plusDays(6)));
+        for (LocalDate day = monday; day.isBefore(monday.plusWeeks(1)); day = day.plusDays(1)) {
+            String todayNote = day.equals(today) ? " (today)" : "";
+            sb.append(String.format("\n%s%s%s:", TaskList.GAP, day.format(DAY_FORM), todayNote))
+                    .append(countsBetween(stats, day, day));
+        }
+        for (int week = 1; week <= WEEKS_AHEAD; week++) {
+            LocalDate start = monday.plusWeeks(week);
+            sb.append(String.format("\nWeek of %s:", start.format(DAY_FORM)))
+                    .append(countsBetween(stats, start, start.plusDays(6)));
+        }
+
+        return Talker.say(sb.toString());
+    }
+
+    private static String countsBetween(TaskStats stats, LocalDate from, LocalDate to) {
+        return String.format(" %d deadline(s), %d event(s)",
+                stats.getDeadlineCount(from, to), stats.getEventCount(from, to));
+    }
+
     static String doBefore(TaskList tl, String input)
             throws PoorInputException, DateTimeParseException {
         assert (Command.BEFORE.matches(input)) : "This should only be accessed by BEFORE";
-        String text = Command.BEFORE.extractText(input);
+        String fullText = Command.BEFORE.extractText(input);
         checkFilterCount(tl);
+        Page page = checkPageSuffix(fullText);
+        String text = dropPageSuffix(fullText);
 
         LocalDateTime bef = TimeStuff.textToDT(text);
-        ArrayList<String> arrBef = tl.listFilter(t ->
-                t.hasTime() && t.compareTo(new Deadline("", bef)) < 0);
+        ArrayList<String> arrBef = tl.listBefore(bef, page);
 
         return (arrBef.isEmpty())
-                ? Talker.say("You don't have any tasks before " + text.trim())
+                ? Talker.say((page == Page.ALL) ? "You don't have any tasks before " + text.trim() : NOTHING_ON_PAGE)
                 : Talker.say("Here are your tasks before " + text.trim() + ":\n") + Talker.printMany(arrBef);
     }
 
     static String doAfter(TaskList tl, String input)
             throws PoorInputException, DateTimeParseException {
         assert (Command.AFTER.matches(input)) : "This should only be accessed by AFTER";
-        String text = Command.AFTER.extractText(input);
+        String fullText = Command.AFTER.extractText(input);
         checkFilterCount(tl);
+        Page page = checkPageSuffix(fullText);
+        String text = dropPageSuffix(fullText);
 
         LocalDateTime aft = TimeStuff.textToDT(text);
-        ArrayList<String> arrAft = tl.listFilter(t ->
-                t.hasTime() && t.compareTo(new Deadline("", aft)) > 0);
+        ArrayList<String> arrAft = tl.listAfter(aft, page);
 
         return (arrAft.isEmpty())
-                ? Talker.say("You don't have any tasks after " + text.trim())
+                ? Talker.say((page == Page.ALL) ? "You don't have any tasks after " + text.trim() : NOTHING_ON_PAGE)
                 : Talker.say("Here are your tasks after " + text.trim() + ":\n") + Talker.printMany(arrAft);
     }
 
     static String doFilter(TaskList tl, String input)
             throws PoorInputException {
         assert (Command.FILTER.matches(input)) : "This should only be accessed by FILTER";
-        String text = Command.FILTER.extractText(input);
+        String fullText = Command.FILTER.extractText(input);
         checkFilterCount(tl);
+        Page page = checkPageSuffix(fullText);
+        String text = dropPageSuffix(fullText);
+
+        // filter types can be combined, e.g. "undone deadline"; "not done" is the only two-word type
+        String[] words = text.toLowerCase().replace("not done", "!done").trim().split("\\s+");
+        LinkedHashSet<String> symbols = new LinkedHashSet<>();
+        // types are combined as "either", and a status narrows them down
+        ArrayList<String> kinds = new ArrayList<>();
+        Boolean isDone = null;
+        String msg = "";
+
+        for (String word : words) {
+            switch (word) {
+            case "todo":
+                // Fallthrough
+            case "td":
+                // Fallthrough
+            case "t":
+                msg = "Ok! These are on your ToDo list:\n";
+                if (symbols.add(Task.TODO_SYMBOL)) {
+                    kinds.add("ToDos");
+                }
+                break;
+
+            case "deadline":
+                // Fallthrough
+            case "dl":
+                // Fallthrough
+            case "d":
+                msg = "Ok! Here are your Deadlines:\n";
+                if (symbols.add(Deadline.DEADLINE_SYMBOL)) {
+                    kinds.add("Deadlines");
+                }
+                break;
+
+            case "event":
+                // Fallthrough
+            case "ev":
+                // Fallthrough
+            case "e":
+                msg = "Ok! Here are your Events:\n";
+                if (symbols.add(Event.EVENT_SYMBOL)) {
+                    kinds.add("Events");
+                }
+                break;
+
+            case "complete":
+                // Fallthrough
+            case "completed":
+                // Fallthrough
+            case "done":
+                // Fallthrough
+            case "marked":
+                // Fallthrough
+            case "x":
+                msg = "Ok! Here are the Tasks you've completed:\n";
+                isDone = checkDone(isDone, true);
+                break;
+
+            case "!done":
+                // Fallthrough
+            case "incomplete":
+                // Fallthrough
+            case "undone":
+                // Fallthrough
+            case "unmarked":
+                msg = "Ok! Here are the Tasks you haven't completed yet:\n";
+                isDone = checkDone(isDone, false);
+                break;
+
+            default:
+                throw new PoorInputException("I'm not sure what Task type that is :(");
+            }
+        }
 
-        String msg;
-        ArrayList<String> arrFilter;
-
-        switch (text.toLowerCase()) {
-        case "todo":
-            // Fallthrough
-        case "td":
-            // Fallthrough
-        case "t":
-            msg = "Ok! These are on your ToDo list:\n";
-            arrFilter = tl.listFilter(t -> t.getSymbol().equals(Task.TODO_SYMBOL));
-            break;
-
-        case "deadline":
-            // Fallthrough
-        case "dl":
-            // Fallthrough
-        case "d":
-            msg = "Ok! Here are your Deadlines:\n";
-            arrFilter = tl.listFilter(t -> t.getSymbol().equals(Deadline.DEADLINE_SYMBOL));
-            break;
-
-        case "event":
-            // Fallthrough
-        case "ev":
-            // Fallthrough
-        case "e":
-            msg = "Ok! Here are your Events:\n";
-            arrFilter = tl.listFilter(t -> t.getSymbol().equals(Event.EVENT_SYMBOL));
-            break;
-
-        case "complete":
-            // Fallthrough
-        case "completed":
-            // Fallthrough
-        case "done":
-            // Fallthrough
-        case "marked":
-            // Fallthrough
-        case "x":
-            msg = "Ok! Here are the Tasks you've completed:\n";
-            arrFilter = tl.listFilter(t -> t.getStatus().equals(Task.DONE_TRUE));
-            break;
-
-        case "!done":
-            // Fallthrough
-        case "incomplete":
-            // Fallthrough
-        case "not done":
-            // Fallthrough
-        case "undone":
-            // Fallthrough
-        case "unmarked":
-            msg = "Ok! Here are the Tasks you haven't completed yet:\n";
-            arrFilter = tl.listFilter(t -> t.getStatus().equals(Task.DONE_FALSE));
-            break;
-
-        default:
-            throw new PoorInputException("I'm not sure what Task type that is :(");
+        if (isDone != null && !kinds.isEmpty()) {
+            msg = "Ok! Here are the Tasks that fit all that:\n";
+        } else if (kinds.size() > 1) {
+            String last = kinds.remove(kinds.size() - 1);
+            msg = "Ok! Here are your " + String.join(", ", kinds) + " and " + last + ":\n";
         }
+        ArrayList<String> arrFilter = tl.listKinds(symbols, isDone, page);
 
         return (arrFilter.isEmpty())
-                ? Talker.say("You don't have any of those :/")
+                ? Talker.say((page == Page.ALL) ? "You don't have any of those :/" : NOTHING_ON_PAGE)
                 : Talker.say(msg) + Talker.printMany(arrFilter);
     }
 
     static String doFind(TaskList tl, String input)
             throws PoorInputException {
         assert (Command.FIND.matches(input)) : "This should only be accessed by FIND";
-        String text = Command.FIND.extractText(input);
+        String fullText = Command.FIND.extractText(input);
         checkFilterCount(tl);
+        Page page = checkPageSuffix(fullText);
+        String text = dropPageSuffix(fullText);
 
-        String lowText = text.toLowerCase();
-        ArrayList<String> arrFind = tl.listFilter(t ->
-                t.getDesc().toLowerCase().contains(lowText));
+        ArrayList<String> arrFind = tl.listFind(text, page);
 
         return (arrFind.isEmpty())
-                ? Talker.say("Nope, nothing matches your search!")
+                ? Talker.say((page == Page.ALL) ? "Nope, nothing matches your search!" : NOTHING_ON_PAGE)
                 : Talker.say("Here! I found these:\n") + Talker.printMany(arrFind);
     }
 
+    static String doQuery(TaskList tl, String input)
+            throws PoorInputException, DateTimeParseException {
+        assert (Command.QUERY.matches(input)) : "This should only be accessed by QUERY";
+        String fullText = Command.QUERY.extractText(input);
+        checkFilterCount(tl);
+        Page page = checkPageSuffix(fullText);
+        String text = dropPageSuffix(fullText);
+
+        ArrayList<String> arrQuery = QueryPlan.of(QueryParser.parse(text), tl).run(tl, page);
+
+        return (arrQuery.isEmpty())
+                ? Talker.say((page == Page.ALL) ? "Nothing fits all that :/" : NOTHING_ON_PAGE)
+                : Talker.say("Ok! Here are the Tasks that fit all that:\n") + Talker.printMany(arrQuery);
+    }
+
+    static String doExplain(TaskList tl, String input)
+            throws PoorInputException, DateTimeParseException {
+        assert (Command.EXPLAIN.matches(input)) : "This should only be accessed by EXPLAIN";
+        String text = Command.EXPLAIN.extractText(input);
+
+        // "explain query ..." and "explain ..." are the same
+        String queryText = Command.QUERY.matches(text) ? Command.QUERY.extractText(text) : text;
+        QueryPlan plan = QueryPlan.of(QueryParser.parse(dropPageSuffix(queryText)), tl);
+
+        return Talker.say("Here's how I'd look that up:\n" + plan.explain());
+    }
+
     static String doEdit(TaskList tl, String input)
             throws PoorInputException {
         assert (Command.EDIT.matches(input)) : "This should only be accessed by EDIT";
@@ -358,4 +584,41 @@ class CommandFunction {
 
         return Talker.say(tl.editTaskDesc(editIndex, editDesc));
     }
+
+    static String doExport(TaskList tl, String input)
+            throws PoorInputException {
+        assert (Command.EXPORT.matches(input)) : "This should only be accessed by EXPORT";
+        String text = Command.EXPORT.extractText(input).trim();
+        ExportFormat format = checkFormat(text);
+
+        try (Writer w = Files.newBufferedWriter(Paths.get(text), StandardCharsets.UTF_8)) {
+            int count = format.write(tl, w);
+            return Talker.say(String.format("Done! I've exported %d task(s) to %s", count, text));
+        } catch (IOException e) {
+            throw new PoorInputException("I couldn't write to \"" + text + "\" :(");
+        }
+    }
+
+    static String doImport(TaskList tl, String input)
+            throws PoorInputException {
+        assert (Command.IMPORT.matches(input)) : "This should only be accessed by IMPORT";
+        String text = Command.IMPORT.extractText(input).trim();
+        ExportFormat format = checkFormat(text);
+        Path path = Paths.get(text);
+        int oldCount = tl.getCount();
+
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            int skipCount = format.read(br, tl);
+            String skipped = (skipCount == 0)
+                    ? ""
+                    : String.format("\n(I had to skip %d I couldn't read)", skipCount);
+            return Talker.say(String.format("Yay! I've imported %d task(s) from %s",
+                    tl.getCount() - oldCount, text) + skipped);
+        } catch (NoSuchFileException e) {
+            throw new PoorInputException("I can't find \"" + text + "\" :(");
+        } catch (IOException e) {
+            throw new PoorInputException(String.format(
+                    "I couldn't finish reading \"%s\", so I only imported %d task(s)", text, tl.getCount() - oldCount));
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package cbot.command;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+import cbot.task.InternPool;
+import cbot.task.Task;
+import cbot.util.TimeStuff;
+
+/**
+ * A clause of a query, which a task either satisfies or not. Clauses are built into a tree by
+ * {@link QueryParser}, and looked up by {@link QueryPlan}.
+ */
+abstract class Query implements Predicate<Task> {
+    /**
+     * Returns the clauses that must all hold for this one to hold, i.e. the parts of an AND,
+     * or else this clause alone.
+     *
+     * @return The clauses joined by AND.
+     */
+    List<Query> conjuncts() {
+        return Collections.singletonList(this);
+    }
+
+    /**
+     * Holds if every one of its parts holds.
+     */
+    static class And extends Query {
+        private final List<Query> parts;
+
+        And(List<Query> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        List<Query> conjuncts() {
+            return this.parts;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            for (Query part : this.parts) {
+                if (!part.test(task)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return join(this.parts, " & ");
+        }
+    }
+
+    /**
+     * Holds if any one of its parts holds.
+     */
+    static class Or extends Query {
+        private final List<Query> parts;
+
+        Or(List<Query> parts) {
+            this.parts = parts;
+        }
+
+        List<Query> getParts() {
+            return this.parts;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            for (Query part : this.parts) {
+                if (part.test(task)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return join(this.parts, " | ");
+        }
+    }
+
+    /**
+     * Holds if its part does not.
+     */
+    static class Not extends Query {
+        private final Query part;
+
+        Not(Query part) {
+            this.part = part;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            return !this.part.test(task);
+        }
+
+        @Override
+        public String toString() {
+            return "!" + this.part;
+        }
+    }
+
+    /**
+     * Holds for tasks of one type.
+     */
+    static class Kind extends Query {
+        private final String symbol;
+
+        Kind(String symbol) {
+            this.symbol = symbol;
+        }
+
+        String getSymbol() {
+            return this.symbol;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            return task.getSymbol().equals(this.symbol);
+        }
+
+        @Override
+        public String toString() {
+            return "type " + this.symbol;
+        }
+    }
+
+    /**
+     * Holds for tasks that are done, or for tasks that are not.
+     */
+    static class Status extends Query {
+        private final boolean isDone;
+
+        Status(boolean isDone) {
+            this.isDone = isDone;
+        }
+
+        boolean isDone() {
+            return this.isDone;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            return task.getStatus().equals(Task.DONE_TRUE) == this.isDone;
+        }
+
+        @Override
+        public String toString() {
+            return this.isDone ? "done" : "undone";
+        }
+    }
+
+    /**
+     * Holds for tasks that fall before a datetime, as the BEFORE command has it.
+     */
+    static class Before extends Query {
+        private final LocalDateTime time;
+
+        Before(LocalDateTime time) {
+            this.time = time;
+        }
+
+        LocalDateTime getTime() {
+            return this.time;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            return task.hasTime() && task.getTime().isBefore(this.time);
+        }
+
+        @Override
+        public String toString() {
+            return "before " + TimeStuff.dtToText(this.time);
+        }
+    }
+
+    /**
+     * Holds for tasks that fall after a datetime, as the AFTER command has it.
+     */
+    static class After extends Query {
+        private final LocalDateTime time;
+
+        After(LocalDateTime time) {
+            this.time = time;
+        }
+
+        LocalDateTime getTime() {
+            return this.time;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            // same as comparing with a Deadline at that time, as every other description comes after ""
+            return task.hasTime() && (task.getTime().isAfter(this.time)
+                    || (task.getTime().isEqual(this.time) && !task.getDesc().isEmpty()));
+        }
+
+        @Override
+        public String toString() {
+            return "after " + TimeStuff.dtToText(this.time);
+        }
+    }
+
+    /**
+     * Holds for tasks whose descriptions contain some text, ignoring case.
+     */
+    static class Text extends Query {
+        private final String text;
+        private final String lowText;
+
+        Text(String text) {
+            this.text = text;
+            this.lowText = text.toLowerCase();
+        }
+
+        String getText() {
+            return this.text;
+        }
+
+        @Override
+        public boolean test(Task task) {
+            return InternPool.toLower(task.getDesc()).contains(this.lowText);
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + this.text + "\"";
+        }
+    }
+
+    private static String join(List<Query> parts, String op) {
+        StringJoiner sj = new StringJoiner(op, "(", ")");
+        for (Query part : parts) {
+            sj.add(part.toString());
+        }
+
+        return sj.toString();
+    }
+}
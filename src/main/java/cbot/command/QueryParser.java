@@ -0,0 +1,251 @@
+package cbot.command;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.util.TimeStuff;
+
+/**
+ * Reads a query into a tree of clauses, e.g. {@code deadline & undone & before 2023-03-01 & "report"}.
+ * <p>
+ * Clauses are the FILTER types and statuses ("deadline", "undone", ...), "before" or "after" a datetime,
+ * and quoted text to find. They are combined with "&amp;" (or "and", or nothing at all), "|" (or "or"),
+ * "!" (or "not") and brackets. "&amp;" comes before "|", so {@code todo | event & done} is
+ * {@code todo | (event & done)}.
+ */
+class QueryParser {
+    private static final String QUOTE = "\"";
+    // the words that start a clause, which also end a datetime before them
+    private static final String[] CLAUSE_WORDS = {
+        "before", "bef", "after", "aft",
+        "todo", "td", "t", "deadline", "dl", "d", "event", "ev", "e",
+        "complete", "completed", "done", "marked", "x", "incomplete", "undone", "unmarked"
+    };
+
+    private final List<String> tokens;
+    private int pos = 0;
+
+    private QueryParser(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Reads the given text into a query.
+     *
+     * @param text The text of the query.
+     * @return The query.
+     * @throws PoorInputException If the text is not a query.
+     * @throws DateTimeParseException If some datetime in the query is not in a recognized format.
+     */
+    static Query parse(String text)
+            throws PoorInputException, DateTimeParseException {
+        QueryParser parser = new QueryParser(tokenize(text));
+        if (parser.tokens.isEmpty()) {
+            throw new BadInputException("Query for what?");
+        }
+
+        Query query = parser.parseOr();
+        if (parser.pos < parser.tokens.size()) {
+            throw new BadInputException("I didn't expect \"" + parser.peek() + "\" there");
+        }
+
+        return query;
+    }
+
+    // quoted text is kept with its opening quote, to tell it apart from words
+    private static List<String> tokenize(String text)
+            throws PoorInputException {
+        ArrayList<String> tokens = new ArrayList<>();
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new BadInputException("You're missing a closing \" somewhere");
+                }
+                tokens.add(text.substring(i, end));
+                i = end + 1;
+            } else if (isSymbol(c)) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                        && !isSymbol(text.charAt(i)) && text.charAt(i) != '"') {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            }
+        }
+
+        return tokens;
+    }
+
+    private static boolean isSymbol(char c) {
+        return c == '&' || c == '|' || c == '!' || c == '(' || c == ')';
+    }
+
+    private String peek() {
+        return (this.pos < this.tokens.size())
+                ? this.tokens.get(this.pos).toLowerCase()
+                : "";
+    }
+
+    private boolean isAt(String ... options) {
+        String token = peek();
+        for (String option : options) {
+            if (token.equals(option)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Query parseOr()
+            throws PoorInputException {
+        ArrayList<Query> parts = new ArrayList<>();
+        parts.add(parseAnd());
+
+        while (isAt("|", "or")) {
+            this.pos++;
+            parts.add(parseAnd());
+        }
+
+        return (parts.size() == 1)
+                ? parts.get(0)
+                : new Query.Or(parts);
+    }
+
+    private Query parseAnd()
+            throws PoorInputException {
+        ArrayList<Query> parts = new ArrayList<>();
+        parts.add(parseNot());
+
+        // clauses side by side are joined by AND, as in FILTER
+        while (!isAt("", "|", "or", ")")) {
+            if (isAt("&", "and")) {
+                this.pos++;
+            }
+            parts.add(parseNot());
+        }
+
+        return (parts.size() == 1)
+                ? parts.get(0)
+                : new Query.And(parts);
+    }
+
+    private Query parseNot()
+            throws PoorInputException {
+        if (isAt("!", "not")) {
+            this.pos++;
+            return new Query.Not(parseNot());
+        }
+
+        if (isAt("(")) {
+            this.pos++;
+            Query inner = parseOr();
+            if (!isAt(")")) {
+                throw new BadInputException("You're missing a closing bracket somewhere");
+            }
+            this.pos++;
+            return inner;
+        }
+
+        return parseClause();
+    }
+
+    private Query parseClause()
+            throws PoorInputException {
+        if (this.pos == this.tokens.size()) {
+            throw new BadInputException("Your query ends too soon!");
+        }
+
+        String token = this.tokens.get(this.pos++);
+        if (token.startsWith(QUOTE)) {
+            if (token.length() == 1) {
+                throw new BadInputException("I can't find \"\", sorry");
+            }
+            return new Query.Text(token.substring(1));
+        }
+
+        switch (token.toLowerCase()) {
+        case "before":
+            // Fallthrough
+        case "bef":
+            return new Query.Before(TimeStuff.textToDT(readTime(token)));
+
+        case "after":
+            // Fallthrough
+        case "aft":
+            return new Query.After(TimeStuff.textToDT(readTime(token)));
+
+        case "todo":
+            // Fallthrough
+        case "td":
+            // Fallthrough
+        case "t":
+            return new Query.Kind(Task.TODO_SYMBOL);
+
+        case "deadline":
+            // Fallthrough
+        case "dl":
+            // Fallthrough
+        case "d":
+            return new Query.Kind(Deadline.DEADLINE_SYMBOL);
+
+        case "event":
+            // Fallthrough
+        case "ev":
+            // Fallthrough
+        case "e":
+            return new Query.Kind(Event.EVENT_SYMBOL);
+
+        case "complete":
+            // Fallthrough
+        case "completed":
+            // Fallthrough
+        case "done":
+            // Fallthrough
+        case "marked":
+            // Fallthrough
+        case "x":
+            return new Query.Status(true);
+
+        case "incomplete":
+            // Fallthrough
+        case "undone":
+            // Fallthrough
+        case "unmarked":
+            return new Query.Status(false);
+
+        default:
+            throw new PoorInputException("I'm not sure what \"" + token + "\" means in a query :(");
+        }
+    }
+
+    private String readTime(String keyword)
+            throws PoorInputException {
+        // a datetime runs up to the next operator or clause, e.g. "before 1 Mar 2023 2pm & done" or "... 2pm done"
+        StringJoiner sj = new StringJoiner(" ");
+        while (!isAt("", "&", "and", "|", "or", "!", "not", "(", ")") && !isAt(CLAUSE_WORDS)
+                && !peek().startsWith(QUOTE)) {
+            sj.add(this.tokens.get(this.pos++));
+        }
+
+        if (sj.length() == 0) {
+            throw new BadInputException("Missing date after \"" + keyword + "\"");
+        }
+
+        return sj.toString();
+    }
+}
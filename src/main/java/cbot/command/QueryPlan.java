@@ -0,0 +1,206 @@
+package cbot.command;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+import cbot.task.Page;
+import cbot.task.TaskList;
+import cbot.task.TaskScan;
+
+/**
+ * How a query is run on a list: the scan that finds the fewest tasks for the clauses of the query
+ * joined by AND, and the clauses left to check on each task it finds.
+ * <p>
+ * Types and statuses are found with the type/status index, "before" and "after" with the time index,
+ * and quoted text with the text index. Clauses under "|" or "!" are only ever checked.
+ *
+ * @see TaskList#listScan(TaskScan, Predicate, Page)
+ */
+class QueryPlan {
+    private final Query query;
+    private final int count;
+    private final TaskScan scan;
+    private final int estimate;
+    private final List<Query> checks;
+    private final List<String> others;
+
+    private QueryPlan(Query query, int count, TaskScan scan, int estimate, List<Query> checks, List<String> others) {
+        this.query = query;
+        this.count = count;
+        this.scan = scan;
+        this.estimate = estimate;
+        this.checks = checks;
+        this.others = others;
+    }
+
+    /**
+     * Plans how to run the given query on the given list, picking the scan the list estimates to find
+     * the fewest tasks.
+     *
+     * @param query The query to run.
+     * @param tl The list to run it on.
+     * @return The plan.
+     * @see TaskList#estimate(TaskScan)
+     */
+    static QueryPlan of(Query query, TaskList tl) {
+        List<Query> conjuncts = query.conjuncts();
+        ArrayList<TaskScan> scans = new ArrayList<>();
+        // the clauses each scan answers exactly, which need not be checked again
+        ArrayList<List<Query>> answers = new ArrayList<>();
+
+        // ties go to the earlier scan, so lists without indexes still skip tasks outside the time range
+        addTimeScan(conjuncts, scans, answers);
+        addKindScan(conjuncts, scans, answers);
+        for (Query conjunct : conjuncts) {
+            if (conjunct instanceof Query.Text) {
+                scans.add(TaskScan.text(((Query.Text) conjunct).getText()));
+                answers.add(Collections.singletonList(conjunct));
+            }
+        }
+
+        int count = tl.getCount();
+        if (scans.isEmpty()) {
+            return new QueryPlan(query, count, TaskScan.all(), count, conjuncts, new ArrayList<>());
+        }
+
+        int best = 0;
+        int[] estimates = new int[scans.size()];
+        for (int i = 0; i < scans.size(); i++) {
+            estimates[i] = tl.estimate(scans.get(i));
+            if (estimates[i] < estimates[best]) {
+                best = i;
+            }
+        }
+
+        ArrayList<Query> checks = new ArrayList<>(conjuncts);
+        checks.removeAll(answers.get(best));
+        ArrayList<String> others = new ArrayList<>();
+        for (int i = 0; i < scans.size(); i++) {
+            if (i != best) {
+                others.add(String.format("%s (~%d)", scans.get(i), estimates[i]));
+            }
+        }
+
+        return new QueryPlan(query, count, scans.get(best), estimates[best], checks, others);
+    }
+
+    private static void addTimeScan(List<Query> conjuncts, List<TaskScan> scans, List<List<Query>> answers) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for (Query conjunct : conjuncts) {
+            if (conjunct instanceof Query.After) {
+                LocalDateTime time = ((Query.After) conjunct).getTime();
+                from = (from == null || time.isAfter(from)) ? time : from;
+            } else if (conjunct instanceof Query.Before) {
+                LocalDateTime time = ((Query.Before) conjunct).getTime();
+                to = (to == null || time.isBefore(to)) ? time : to;
+            }
+        }
+
+        if (from == null && to == null) {
+            return;
+        }
+
+        from = (from == null) ? LocalDateTime.MIN : from;
+        to = (to == null) ? LocalDateTime.MAX : to;
+        // the range is inclusive, so "before" and "after" are still checked on the tasks at its ends
+        scans.add(TaskScan.between(from, to.isBefore(from) ? from : to));
+        answers.add(Collections.emptyList());
+    }
+
+    private static void addKindScan(List<Query> conjuncts, List<TaskScan> scans, List<List<Query>> answers) {
+        Query.Status status = null;
+        Query kinds = null;
+        LinkedHashSet<String> symbols = new LinkedHashSet<>();
+
+        for (Query conjunct : conjuncts) {
+            if (status == null && conjunct instanceof Query.Status) {
+                status = (Query.Status) conjunct;
+            } else if (kinds == null && getSymbols(conjunct) != null) {
+                kinds = conjunct;
+                symbols.addAll(getSymbols(conjunct));
+            }
+        }
+
+        if (status == null && kinds == null) {
+            return;
+        }
+
+        ArrayList<Query> answered = new ArrayList<>();
+        if (status != null) {
+            answered.add(status);
+        }
+        if (kinds != null) {
+            answered.add(kinds);
+        }
+
+        scans.add(TaskScan.kinds(symbols, (status == null) ? null : status.isDone()));
+        answers.add(answered);
+    }
+
+    // e.g. "deadline" or "(todo | event)"; null if the clause is not only about types
+    private static List<String> getSymbols(Query query) {
+        if (query instanceof Query.Kind) {
+            return Collections.singletonList(((Query.Kind) query).getSymbol());
+        }
+
+        if (!(query instanceof Query.Or)) {
+            return null;
+        }
+
+        ArrayList<String> symbols = new ArrayList<>();
+        for (Query part : ((Query.Or) query).getParts()) {
+            if (!(part instanceof Query.Kind)) {
+                return null;
+            }
+            symbols.add(((Query.Kind) part).getSymbol());
+        }
+
+        return symbols;
+    }
+
+    /**
+     * Returns the given page of the list of the tasks the query matches.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param tl The list to run the query on.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     */
+    ArrayList<String> run(TaskList tl, Page page) {
+        List<Query> checks = this.checks;
+        return tl.listScan(this.scan, t -> {
+            for (Query check : checks) {
+                if (!check.test(t)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }, page);
+    }
+
+    /**
+     * Returns a description of the plan: the scan picked, how many tasks it finds out of all of them,
+     * the clauses checked on each, and the other scans that could have been picked.
+     *
+     * @return The description of the plan.
+     */
+    String explain() {
+        StringJoiner checkText = new StringJoiner(" & ");
+        for (Query check : this.checks) {
+            checkText.add(check.toString());
+        }
+
+        return "Query: " + this.query
+                + "\nScan: " + this.scan + String.format(" (~%d of %d tasks)", this.estimate, this.count)
+                + "\nCheck: " + ((this.checks.isEmpty()) ? "nothing else" : checkText.toString())
+                + "\nAlso considered: " + ((this.others.isEmpty()) ? "nothing" : String.join(", ", this.others));
+    }
+}
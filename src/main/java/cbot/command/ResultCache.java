@@ -0,0 +1,133 @@
+package cbot.command;
+
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import cbot.task.TaskList;
+
+/**
+ * Keeps the outputs of the most recently run Commands that only read the list of tasks, so that running
+ * one again before the list changes gives back the same output without working it out again.
+ * Outputs are kept by the normalized input and the version of the list they were worked out from,
+ * and the least recently used are dropped once there are too many.
+ *
+ * @see Command#isCacheable()
+ * @see TaskList#getVersion()
+ */
+public class ResultCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, String> outputs;
+    // outputs are only kept for one list, and one version of it
+    private TaskList list = null;
+    private long version = -1;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Constructs a cache that keeps at most the given number of outputs.
+     *
+     * @param capacity The number of outputs kept, which may be 0 to keep none.
+     */
+    public ResultCache(int capacity) {
+        this.capacity = capacity;
+        // in order of use, so the eldest is the least recently used
+        this.outputs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > ResultCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Runs the given Command, or gives back its kept output if it was last run on the same version of the list.
+     *
+     * @param command The Command to run.
+     * @param input The input the Command was given.
+     * @param tl The list of tasks to run it on.
+     * @return The output of the Command.
+     * @throws PoorInputException If the input text is improper or erroneous.
+     * @throws DateTimeParseException If some provided datetime is not in a recognized format.
+     * @see Command#runCommand(TaskList, String)
+     */
+    public String respond(Command command, String input, TaskList tl)
+            throws PoorInputException, DateTimeParseException {
+        if (!command.isCacheable() || this.capacity == 0) {
+            return command.runCommand(tl, input);
+        }
+
+        if (tl != this.list || tl.getVersion() != this.version) {
+            // nothing kept can be asked for again
+            this.outputs.clear();
+            this.list = tl;
+            this.version = tl.getVersion();
+        }
+
+        Key key = new Key(command.normalize(input), this.version);
+        String output = this.outputs.get(key);
+        if (output != null) {
+            this.hitCount++;
+            return output;
+        }
+
+        this.missCount++;
+        output = command.runCommand(tl, input);
+        assert tl.getVersion() == this.version : command + " changed the list";
+        this.outputs.put(key, output);
+        return output;
+    }
+
+    /**
+     * Returns the number of times a kept output was given back.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of times a Command that could be kept was run.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of outputs kept.
+     *
+     * @return The number of outputs.
+     */
+    public int size() {
+        return this.outputs.size();
+    }
+
+    private static class Key {
+        private final String input;
+        private final long version;
+
+        Key(String input, long version) {
+            this.input = input;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return this.version == other.version && this.input.equals(other.input);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.input, this.version);
+        }
+    }
+}
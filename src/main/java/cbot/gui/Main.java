@@ -41,12 +41,14 @@ public class Main extends Application {
 
     /**
      * This method is called when the application should stop.
+     * Any unsaved changes are written out first.
      * There is a forced delay to allow the user to read the exit message before the window closes.
      *
      * @throws InterruptedException If the delay is interrupted.
      */
     @Override
     public void stop() throws InterruptedException {
+        cbot.shutdown();
         Thread.sleep(750);
     }
 }
@@ -47,13 +47,19 @@ public class MainWindow extends AnchorPane {
     }
 
     /**
-     * Displays Cbot's friendly greeting.
+     * Displays Cbot's friendly greeting, and any warning about damaged saved tasks.
      *
      * @see Cbot#sayHi()
      * @see Talker#sayHi()
+     * @see Cbot#getRecoveryWarning()
      */
     public void greetUser() {
         dialogContainer.getChildren().add(DialogBox.getCbotDialog(Cbot.sayHi(), CBOT_IMG));
+
+        String warning = cbot.getRecoveryWarning();
+        if (warning != null) {
+            dialogContainer.getChildren().add(DialogBox.getCbotDialog(warning, CBOT_BAD_IMG));
+        }
     }
 
     /**
@@ -5,6 +5,7 @@ import java.time.format.DateTimeParseException;
 import cbot.command.BadInputException;
 import cbot.command.Command;
 import cbot.command.PoorInputException;
+import cbot.command.ResultCache;
 import cbot.task.Task;
 import cbot.task.TaskList;
 
@@ -77,4 +78,20 @@ public class Parser {
             throws PoorInputException, DateTimeParseException {
         return this.command.runCommand(tl, this.input);
     }
+
+    /**
+     * Processes the Command and the rest of the input, giving back the kept output instead if the same
+     * Command was run on the list since it last changed.
+     *
+     * @param tl The current list of tasks.
+     * @param cache The outputs kept so far.
+     * @return The String response to the command.
+     * @throws PoorInputException If the input text is improper or erroneous.
+     * @throws DateTimeParseException If some provided datetime is not in a recognized format.
+     * @see #respond(TaskList)
+     */
+    public String respond(TaskList tl, ResultCache cache)
+            throws PoorInputException, DateTimeParseException {
+        return cache.respond(this.command, this.input, tl);
+    }
 }
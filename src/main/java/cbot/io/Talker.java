@@ -79,6 +79,18 @@ public class Talker {
                 + "yyyy-MM-dd HH:mm";
     }
 
+    /**
+     * Returns a warning that some saved tasks could not be recovered.
+     *
+     * @param note What was skipped, and where it was kept.
+     * @return The recovery warning.
+     * @see cbot.util.FileStuff#getRecoveryNote()
+     */
+    public static String warnRecovery(String note) {
+        return WARNING + "Some of your saved tasks were damaged, so I had to patch things up :(\n"
+                + note;
+    }
+
     /**
      * Returns the given String with the standard indentation.
      *
@@ -0,0 +1,244 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Holds tasks column by column instead of as objects: a type code, a done bit, the times as seconds
+ * (and nanoseconds, only once some time has them), and the handle of a description in a {@link DescStore}.
+ * Tasks are made afresh from the columns whenever they are got, so changing a task got from here
+ * changes nothing until it is put back.
+ * <p>
+ * Types, statuses and times can be filtered and sorted on straight from the columns.
+ */
+class ColumnSlots implements TaskSlots {
+    private static final byte EMPTY = 0;
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+    private static final String[] SYMBOLS = {null, Task.TODO_SYMBOL, Deadline.DEADLINE_SYMBOL, Event.EVENT_SYMBOL};
+
+    private final byte[] types;
+    private final BitSet done;
+    // seconds since 1970 (UTC) of the time of the task, which is LocalDateTime.MIN for to-dos
+    private final long[] times;
+    // seconds of the end of an event
+    private final long[] endTimes;
+    // the nanoseconds of each time, then of each end; null until a time has any
+    private int[] nanos = null;
+    private final long[] descs;
+    private final DescStore descStore;
+
+    /**
+     * Constructs the given number of empty slots, keeping descriptions in the given store.
+     *
+     * @param capacity The number of slots.
+     * @param descStore Where the descriptions are kept.
+     */
+    ColumnSlots(int capacity, DescStore descStore) {
+        this.types = new byte[capacity];
+        this.done = new BitSet(capacity);
+        this.times = new long[capacity];
+        this.endTimes = new long[capacity];
+        this.descs = new long[capacity];
+        this.descStore = descStore;
+    }
+
+    @Override
+    public int capacity() {
+        return this.types.length;
+    }
+
+    @Override
+    public Task get(int id) {
+        String desc = (this.types[id] == EMPTY) ? null : this.descStore.get(this.descs[id]);
+        boolean isDone = this.done.get(id);
+
+        switch (this.types[id]) {
+        case TODO:
+            return new Task(desc, isDone);
+        case DEADLINE:
+            return new Deadline(desc, timeAt(this.times, id, 0), isDone);
+        case EVENT:
+            return new Event(desc, timeAt(this.times, id, 0), timeAt(this.endTimes, id, 1), isDone);
+        default:
+            return null;
+        }
+    }
+
+    private LocalDateTime timeAt(long[] seconds, int id, int isEnd) {
+        int nano = (this.nanos == null) ? 0 : this.nanos[2 * id + isEnd];
+        return LocalDateTime.ofEpochSecond(seconds[id], nano, ZoneOffset.UTC);
+    }
+
+    @Override
+    public void set(int id, Task task) {
+        // added before the old one is released, so an unchanged description is never dropped from a pool
+        long desc = this.descStore.add(task.getDesc());
+        boolean wasEmpty = (this.types[id] == EMPTY);
+        if (!wasEmpty) {
+            this.descStore.release(this.descs[id]);
+        }
+
+        this.types[id] = codeOf(task.getSymbol());
+        this.done.set(id, task.getStatus().equals(Task.DONE_TRUE));
+        this.descs[id] = desc;
+        setTime(this.times, id, 0, task.getTime());
+        setTime(this.endTimes, id, 1,
+                (this.types[id] == EVENT) ? ((Event) task).getEndTime() : LocalDateTime.MIN);
+
+        if (!wasEmpty) {
+            compactDescs();
+        }
+    }
+
+    private void compactDescs() {
+        this.descStore.compact(this.descs, id -> this.types[id] != EMPTY);
+    }
+
+    private void setTime(long[] seconds, int id, int isEnd, LocalDateTime time) {
+        seconds[id] = time.toEpochSecond(ZoneOffset.UTC);
+
+        if (this.nanos == null && time.getNano() != 0) {
+            this.nanos = new int[2 * capacity()];
+        }
+        if (this.nanos != null) {
+            this.nanos[2 * id + isEnd] = time.getNano();
+        }
+    }
+
+    private static byte codeOf(String symbol) {
+        for (byte code = TODO; code < SYMBOLS.length; code++) {
+            if (SYMBOLS[code].equals(symbol)) {
+                return code;
+            }
+        }
+
+        throw new IllegalArgumentException("No column type for tasks of type " + symbol);
+    }
+
+    @Override
+    public void clear(int id) {
+        if (this.types[id] == EMPTY) {
+            return;
+        }
+
+        this.descStore.release(this.descs[id]);
+        this.types[id] = EMPTY;
+        this.done.clear(id);
+        compactDescs();
+    }
+
+    @Override
+    public TaskSlots pack(int[] ids, int capacity) {
+        // the descriptions move across as they are, so the store is shared
+        ColumnSlots packed = new ColumnSlots(capacity, this.descStore);
+        if (this.nanos != null) {
+            packed.nanos = new int[2 * capacity];
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            packed.types[i] = this.types[id];
+            packed.done.set(i, this.done.get(id));
+            packed.times[i] = this.times[id];
+            packed.endTimes[i] = this.endTimes[id];
+            packed.descs[i] = this.descs[id];
+            if (this.nanos != null) {
+                packed.nanos[2 * i] = this.nanos[2 * id];
+                packed.nanos[2 * i + 1] = this.nanos[2 * id + 1];
+            }
+        }
+
+        return packed;
+    }
+
+    @Override
+    public int[] sort(int[] ids) {
+        // each description is got from its store at most once
+        String[] lowDescs = new String[capacity()];
+
+        return Arrays.stream(ids)
+                .boxed()
+                .sorted((a, b) -> {
+                    int byTime = Long.compare(this.times[a], this.times[b]);
+                    if (byTime == 0 && this.nanos != null) {
+                        byTime = Integer.compare(this.nanos[2 * a], this.nanos[2 * b]);
+                    }
+                    if (byTime != 0) {
+                        return byTime;
+                    }
+
+                    return lowDesc(lowDescs, a).compareTo(lowDesc(lowDescs, b));
+                })
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private String lowDesc(String[] lowDescs, int id) {
+        if (lowDescs[id] == null) {
+            lowDescs[id] = InternPool.toLower(this.descStore.get(this.descs[id]));
+        }
+
+        return lowDescs[id];
+    }
+
+    /**
+     * Returns the IDs of the tasks of any of the given types, and with the given status.
+     *
+     * @param symbols The symbols of the task types wanted, or none for every type.
+     * @param isDone Whether the tasks wanted are done, or null for either.
+     * @return The IDs of the matching tasks.
+     * @see KindIndex#select(Collection, Boolean)
+     */
+    BitSet selectKinds(Collection<String> symbols, Boolean isDone) {
+        boolean[] isWanted = new boolean[SYMBOLS.length];
+        for (byte code = TODO; code < SYMBOLS.length; code++) {
+            isWanted[code] = symbols.isEmpty() || symbols.contains(SYMBOLS[code]);
+        }
+
+        BitSet found = new BitSet(capacity());
+        for (int id = 0; id < this.types.length; id++) {
+            if (isWanted[this.types[id]] && (isDone == null || this.done.get(id) == isDone)) {
+                found.set(id);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the IDs of the time-based tasks with times between the given datetimes (inclusive),
+     * in ascending order.
+     *
+     * @param from The earliest datetime.
+     * @param to The latest datetime.
+     * @return The IDs of the tasks.
+     * @see TimeIndex#between(LocalDateTime, LocalDateTime)
+     */
+    ArrayList<Integer> between(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        ArrayList<Integer> found = new ArrayList<>();
+
+        for (int id = 0; id < this.types.length; id++) {
+            boolean hasTime = this.types[id] == DEADLINE || this.types[id] == EVENT;
+            if (!hasTime || this.times[id] < fromSecond || this.times[id] > toSecond) {
+                continue;
+            }
+
+            int nano = (this.nanos == null) ? 0 : this.nanos[2 * id];
+            boolean isTooEarly = this.times[id] == fromSecond && nano < from.getNano();
+            boolean isTooLate = this.times[id] == toSecond && nano > to.getNano();
+            if (!isTooEarly && !isTooLate) {
+                found.add(id);
+            }
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,115 @@
+package cbot.task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntPredicate;
+
+/**
+ * Holds descriptions as UTF-8 bytes one after another in a direct buffer, outside the heap. A handle
+ * is the offset of the bytes (high 32 bits) and their length (low 32 bits).
+ * Released bytes are left where they are until more than half the buffer is released, and then
+ * the rest are moved together.
+ */
+class DescArena implements DescStore {
+    private static final int MIN_CAPACITY = 1 << 16;
+
+    private ByteBuffer bytes = ByteBuffer.allocateDirect(MIN_CAPACITY);
+    private int end = 0;
+    private long released = 0;
+
+    @Override
+    public long add(String desc) {
+        byte[] utf8 = desc.getBytes(StandardCharsets.UTF_8);
+        if ((long) this.end + utf8.length > this.bytes.capacity()) {
+            grow((long) this.end + utf8.length);
+        }
+
+        int offset = this.end;
+        this.bytes.position(offset);
+        this.bytes.put(utf8);
+        this.end += utf8.length;
+
+        return ((long) offset << 32) | utf8.length;
+    }
+
+    private void grow(long minCapacity) {
+        if (minCapacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Descriptions take up more than 2 GB");
+        }
+
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(minCapacity, 2L * this.bytes.capacity()));
+        ByteBuffer newBytes = ByteBuffer.allocateDirect(capacity);
+        this.bytes.position(0).limit(this.end);
+        newBytes.put(this.bytes);
+        this.bytes = newBytes;
+    }
+
+    @Override
+    public String get(long handle) {
+        byte[] utf8 = new byte[lengthOf(handle)];
+        // a duplicate has its own position, so reads never disturb one another
+        ByteBuffer view = this.bytes.duplicate();
+        view.position(offsetOf(handle));
+        view.get(utf8);
+
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void release(long handle) {
+        this.released += lengthOf(handle);
+    }
+
+    @Override
+    public void compact(long[] handles, IntPredicate isUsed) {
+        if (this.released * 2 <= this.end || this.end < MIN_CAPACITY) {
+            return;
+        }
+
+        int liveBytes = (int) (this.end - this.released);
+        ByteBuffer newBytes = ByteBuffer.allocateDirect(Math.max(MIN_CAPACITY, liveBytes * 2));
+        for (int slot = 0; slot < handles.length; slot++) {
+            if (!isUsed.test(slot)) {
+                continue;
+            }
+
+            int offset = offsetOf(handles[slot]);
+            int length = lengthOf(handles[slot]);
+            handles[slot] = ((long) newBytes.position() << 32) | length;
+
+            ByteBuffer view = this.bytes.duplicate();
+            view.position(offset).limit(offset + length);
+            newBytes.put(view);
+        }
+
+        this.bytes = newBytes;
+        this.end = newBytes.position();
+        this.released = 0;
+    }
+
+    /**
+     * Returns the number of bytes of the buffer, used or not.
+     *
+     * @return The capacity of the buffer.
+     */
+    int capacity() {
+        return this.bytes.capacity();
+    }
+
+    /**
+     * Returns the number of bytes taken by descriptions that are still in use.
+     *
+     * @return The number of bytes in use.
+     */
+    long usedBytes() {
+        return this.end - this.released;
+    }
+
+    private static int offsetOf(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static int lengthOf(long handle) {
+        return (int) handle;
+    }
+}
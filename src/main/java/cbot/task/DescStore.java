@@ -0,0 +1,43 @@
+package cbot.task;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Holds the descriptions of the tasks in {@link ColumnSlots}, each referred to by a handle.
+ *
+ * @see StringPool
+ * @see DescArena
+ */
+interface DescStore {
+    /**
+     * Adds a description, and returns its handle.
+     *
+     * @param desc The description.
+     * @return The handle of the description.
+     */
+    long add(String desc);
+
+    /**
+     * Returns the description with the given handle.
+     *
+     * @param handle The handle of the description.
+     * @return The description.
+     */
+    String get(long handle);
+
+    /**
+     * Releases the description with the given handle, which is not used again after this.
+     *
+     * @param handle The handle of the description.
+     */
+    void release(long handle);
+
+    /**
+     * Reclaims the space of released descriptions, if enough has been released to be worth it.
+     * The handles in use may change, so they are updated in place.
+     *
+     * @param handles The handles, by slot.
+     * @param isUsed Whether the handle in a slot is in use.
+     */
+    void compact(long[] handles, IntPredicate isUsed);
+}
@@ -46,6 +46,15 @@ public class Event extends Task {
         return this.fromTime;
     }
 
+    /**
+     * Returns the end datetime of the event.
+     *
+     * @return The end datetime.
+     */
+    public LocalDateTime getEndTime() {
+        return this.toTime;
+    }
+
     @Override
     public String toString() {
         return String.format("%s (%s - %s)",
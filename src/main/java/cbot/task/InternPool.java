@@ -0,0 +1,64 @@
+package cbot.task;
+
+/**
+ * Shares one instance of each recently seen task description, along with its lowercase form, so that
+ * the many tasks with the same description (e.g. "gym") hold one String between them, and each
+ * description is only lowercased once.
+ * <p>
+ * The pool is bounded: each description has one slot, picked by its hash, and a newer description
+ * takes over the slot from an older one. Entries never change once made, so the pool can be used
+ * from any thread without locking; at worst, two threads make an entry for the same description.
+ *
+ * @see Task#Task(String, boolean...)
+ */
+public class InternPool {
+    private static final int SIZE = 1 << 14;
+
+    private static final Entry[] entries = new Entry[SIZE];
+
+    private static class Entry {
+        private final String desc;
+        private final String lowDesc;
+
+        private Entry(String desc, String lowDesc) {
+            this.desc = desc;
+            this.lowDesc = lowDesc;
+        }
+    }
+
+    /**
+     * Returns the pooled instance of the given description, pooling it if there is none.
+     *
+     * @param desc The description.
+     * @return An equal description, shared with the other tasks that have it.
+     */
+    public static String intern(String desc) {
+        return entryOf(desc).desc;
+    }
+
+    /**
+     * Returns the given description in lowercase, lowercasing it only if it is not in the pool.
+     *
+     * @param desc The description.
+     * @return The description in lowercase.
+     * @see String#toLowerCase()
+     */
+    public static String toLower(String desc) {
+        return entryOf(desc).lowDesc;
+    }
+
+    private static Entry entryOf(String desc) {
+        int hash = desc.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+
+        Entry entry = entries[slot];
+        if (entry != null && (entry.desc == desc || entry.desc.equals(desc))) {
+            return entry;
+        }
+
+        String lowDesc = desc.toLowerCase();
+        Entry newEntry = new Entry(desc, lowDesc.equals(desc) ? desc : lowDesc);
+        entries[slot] = newEntry;
+        return newEntry;
+    }
+}
@@ -0,0 +1,221 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the IDs of the events in a list in a tree ordered by their start times, where each node also
+ * knows the latest end time below it, so that the events overlapping a span of time can be found
+ * without looking at the rest.
+ * The tree is a treap: nodes are also heap-ordered by a random priority, which keeps it balanced
+ * whatever order events are added in.
+ *
+ * @see Event
+ */
+class IntervalIndex {
+    private final Random random = new Random(1);
+    private Node root = null;
+
+    private static class Node {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int id;
+        private final int priority;
+        private Node left = null;
+        private Node right = null;
+        // the latest end time of any event in the subtree
+        private LocalDateTime maxEnd;
+
+        private Node(LocalDateTime start, LocalDateTime end, int id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * Adds the task with the given ID, if it is an event.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void add(int id, Task task) {
+        if (task instanceof Event) {
+            Node added = new Node(task.getTime(), ((Event) task).getEndTime(), id, this.random.nextInt());
+            this.root = insert(this.root, added);
+        }
+    }
+
+    /**
+     * Removes the task with the given ID, if it is an event.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void remove(int id, Task task) {
+        if (task instanceof Event) {
+            this.root = remove(this.root, task.getTime(), id);
+        }
+    }
+
+    /**
+     * Gives the IDs of the events that overlap the given span of time, i.e. start before it ends and end
+     * after it starts, in order of their start times. Events that only touch the span at one end do not overlap it.
+     *
+     * @param start The start of the span.
+     * @param end The end of the span.
+     * @param found What to give each ID to.
+     */
+    void overlapping(LocalDateTime start, LocalDateTime end, IntConsumer found) {
+        overlapping(this.root, start, end, found);
+    }
+
+    /**
+     * Gives every pair of overlapping events, as the IDs of the one that starts first (or has the lower ID,
+     * if both start together) and of the other.
+     *
+     * @param found What to give each pair to.
+     * @see #overlapping(LocalDateTime, LocalDateTime, IntConsumer)
+     */
+    void overlappingPairs(BiConsumer<Integer, Integer> found) {
+        // a sweep in order of start time, keeping the events that have not yet ended; each event overlaps
+        // every one of those that ends after it starts
+        PriorityQueue<Node> ongoing = new PriorityQueue<>((a, b) -> a.end.compareTo(b.end));
+        inOrder(this.root, node -> {
+            while (!ongoing.isEmpty() && !ongoing.peek().end.isAfter(node.start)) {
+                ongoing.poll();
+            }
+            for (Node other : ongoing) {
+                if (other.start.isBefore(node.end)) {
+                    found.accept(other.id, node.id);
+                }
+            }
+            ongoing.add(node);
+        });
+    }
+
+    private static int compare(LocalDateTime start, int id, Node node) {
+        int byStart = start.compareTo(node.start);
+        return (byStart != 0) ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = compare(start, id, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        } else if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else {
+            node.right = remove(node.right, start, id);
+        }
+
+        update(node);
+        return node;
+    }
+
+    // every node in the first tree comes before every node in the second
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static void overlapping(Node node, LocalDateTime start, LocalDateTime end, IntConsumer found) {
+        // nothing below ends after the span starts
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+
+        overlapping(node.left, start, end, found);
+        // this event, and everything after it, starts once the span is over
+        if (!node.start.isBefore(end)) {
+            return;
+        }
+        if (node.end.isAfter(start)) {
+            found.accept(node.id);
+        }
+        overlapping(node.right, start, end, found);
+    }
+
+    private static void inOrder(Node node, Consumer<Node> action) {
+        if (node == null) {
+            return;
+        }
+
+        inOrder(node.left, action);
+        action.accept(node);
+        inOrder(node.right, action);
+    }
+}
@@ -0,0 +1,79 @@
+package cbot.task;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Keeps a bitmap of task IDs for each task type, and one of the IDs of tasks that are done, so that tasks
+ * of some types and status can be found by combining bitmaps instead of looking at every task.
+ *
+ * @see Task#getSymbol()
+ * @see Task#getStatus()
+ */
+class KindIndex {
+    private final HashMap<String, BitSet> bySymbol = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final BitSet done = new BitSet();
+
+    /**
+     * Adds the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void add(int id, Task task) {
+        this.bySymbol.computeIfAbsent(task.getSymbol(), symbol -> new BitSet()).set(id);
+        this.all.set(id);
+        setDone(id, task.getStatus().equals(Task.DONE_TRUE));
+    }
+
+    /**
+     * Removes the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void remove(int id, Task task) {
+        this.bySymbol.get(task.getSymbol()).clear(id);
+        this.all.clear(id);
+        this.done.clear(id);
+    }
+
+    /**
+     * Records whether the task with the given ID is done.
+     *
+     * @param id The ID of the task.
+     * @param isDone Whether the task is done.
+     */
+    void setDone(int id, boolean isDone) {
+        this.done.set(id, isDone);
+    }
+
+    /**
+     * Returns the IDs of the tasks of any of the given types, and with the given status.
+     *
+     * @param symbols The symbols of the task types wanted, or none for every type.
+     * @param isDone Whether the tasks wanted are done, or null for either.
+     * @return The IDs of the matching tasks.
+     */
+    BitSet select(Collection<String> symbols, Boolean isDone) {
+        BitSet found;
+        if (symbols.isEmpty()) {
+            found = (BitSet) this.all.clone();
+        } else {
+            found = new BitSet();
+            for (String symbol : symbols) {
+                found.or(this.bySymbol.getOrDefault(symbol, new BitSet()));
+            }
+        }
+
+        if (Boolean.TRUE.equals(isDone)) {
+            found.and(this.done);
+        } else if (Boolean.FALSE.equals(isDone)) {
+            found.andNot(this.done);
+        }
+
+        return found;
+    }
+}
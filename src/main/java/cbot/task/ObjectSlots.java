@@ -0,0 +1,59 @@
+package cbot.task;
+
+import java.util.Arrays;
+
+/**
+ * Holds each task as the object it was given as.
+ */
+class ObjectSlots implements TaskSlots {
+    private final Task[] tasks;
+
+    /**
+     * Constructs the given number of empty slots.
+     *
+     * @param capacity The number of slots.
+     */
+    ObjectSlots(int capacity) {
+        this.tasks = new Task[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return this.tasks.length;
+    }
+
+    @Override
+    public Task get(int id) {
+        return this.tasks[id];
+    }
+
+    @Override
+    public void set(int id, Task task) {
+        this.tasks[id] = task;
+    }
+
+    @Override
+    public void clear(int id) {
+        this.tasks[id] = null;
+    }
+
+    @Override
+    public TaskSlots pack(int[] ids, int capacity) {
+        ObjectSlots packed = new ObjectSlots(capacity);
+        for (int i = 0; i < ids.length; i++) {
+            packed.tasks[i] = this.tasks[ids[i]];
+        }
+
+        return packed;
+    }
+
+    @Override
+    public int[] sort(int[] ids) {
+        // a stable sort, like Collections.sort
+        return Arrays.stream(ids)
+                .boxed()
+                .sorted((a, b) -> this.tasks[a].compareTo(this.tasks[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
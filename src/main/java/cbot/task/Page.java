@@ -0,0 +1,62 @@
+package cbot.task;
+
+/**
+ * A slice of a list of tasks, from the first to the last position (1-based, inclusive) among the tasks
+ * listed. e.g. page 2 of the tasks that are done is the 21st to 40th tasks that are done.
+ *
+ * @see TaskList#listTasks(Page)
+ */
+public class Page {
+    public static final int SIZE = 20;
+    public static final Page ALL = new Page(1, Integer.MAX_VALUE);
+
+    private final int first;
+    private final int last;
+
+    private Page(int first, int last) {
+        assert first >= 1 && last >= first : "Invalid page bounds";
+
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Returns the page with the given number, of {@link #SIZE} tasks each.
+     *
+     * @param number The 1-based number of the page.
+     * @return The page.
+     */
+    public static Page of(int number) {
+        int first = (int) Math.min(Integer.MAX_VALUE, (number - 1L) * SIZE + 1);
+        return new Page(first, (int) Math.min(Integer.MAX_VALUE, (long) first + SIZE - 1));
+    }
+
+    /**
+     * Returns the page from the first to the last position given.
+     *
+     * @param first The 1-based position of the first task.
+     * @param last The 1-based position of the last task.
+     * @return The page.
+     */
+    public static Page between(int first, int last) {
+        return new Page(first, last);
+    }
+
+    /**
+     * Returns the 1-based position of the first task on the page.
+     *
+     * @return The position of the first task.
+     */
+    public int getFirst() {
+        return this.first;
+    }
+
+    /**
+     * Returns the 1-based position of the last task on the page.
+     *
+     * @return The position of the last task.
+     */
+    public int getLast() {
+        return this.last;
+    }
+}
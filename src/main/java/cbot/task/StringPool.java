@@ -0,0 +1,99 @@
+package cbot.task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Keeps one copy of each distinct string, referred to by a number. Each string is counted for every
+ * time it is added, and dropped once it has been released as many times.
+ */
+class StringPool implements DescStore {
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] strings = new String[MIN_CAPACITY];
+    private int[] counts = new int[MIN_CAPACITY];
+    private final HashMap<String, Integer> refs = new HashMap<>();
+    // numbers of the dropped strings, to be given out again
+    private int[] free = new int[MIN_CAPACITY];
+    private int freeCount = 0;
+    private int nextRef = 0;
+
+    /**
+     * Adds a string, and returns its number. Equal strings get the same number.
+     *
+     * @param s The string.
+     * @return The number of the string.
+     */
+    @Override
+    public long add(String s) {
+        Integer ref = this.refs.get(s);
+        if (ref != null) {
+            this.counts[ref]++;
+            return ref;
+        }
+
+        int newRef;
+        if (this.freeCount > 0) {
+            newRef = this.free[--this.freeCount];
+        } else {
+            if (this.nextRef == this.strings.length) {
+                this.strings = Arrays.copyOf(this.strings, this.nextRef * 2);
+                this.counts = Arrays.copyOf(this.counts, this.nextRef * 2);
+            }
+            newRef = this.nextRef++;
+        }
+
+        this.strings[newRef] = s;
+        this.counts[newRef] = 1;
+        this.refs.put(s, newRef);
+        return newRef;
+    }
+
+    /**
+     * Returns the string with the given number.
+     *
+     * @param ref The number of the string.
+     * @return The string.
+     */
+    @Override
+    public String get(long ref) {
+        return this.strings[(int) ref];
+    }
+
+    /**
+     * Releases the string with the given number once, dropping it if it is no longer used.
+     *
+     * @param handle The number of the string.
+     */
+    @Override
+    public void release(long handle) {
+        int ref = (int) handle;
+        assert this.counts[ref] > 0 : "String already dropped";
+
+        if (--this.counts[ref] > 0) {
+            return;
+        }
+
+        this.refs.remove(this.strings[ref]);
+        this.strings[ref] = null;
+        if (this.freeCount == this.free.length) {
+            this.free = Arrays.copyOf(this.free, this.freeCount * 2);
+        }
+        this.free[this.freeCount++] = ref;
+    }
+
+    @Override
+    public void compact(long[] handles, IntPredicate isUsed) {
+        // the numbers of dropped strings are given out again, so nothing is left to reclaim
+    }
+
+    /**
+     * Returns the number of distinct strings held.
+     *
+     * @return The number of strings.
+     */
+    int size() {
+        return this.refs.size();
+    }
+}
@@ -19,13 +19,14 @@ public class Task implements Comparable<Task> {
 
     /**
      * Constructs a 'to-do' task with the given description and completion status.
+     * The description is shared with other tasks that have the same one (see {@link InternPool}).
      * The last variable is optional, and defaults to false (not done)
      *
      * @param desc The task description.
      * @param isDone Whether the task is done.
      */
     public Task(String desc, boolean ... isDone) {
-        this.desc = desc;
+        this.desc = InternPool.intern(desc);
         this.isDone = (isDone.length != 0) ? isDone[0] : false;
     }
 
@@ -44,7 +45,7 @@ public class Task implements Comparable<Task> {
      * @param newDesc The new task description.
      */
     public void editDesc(String newDesc) {
-        this.desc = newDesc;
+        this.desc = InternPool.intern(newDesc);
     }
 
     /**
@@ -143,7 +144,7 @@ public class Task implements Comparable<Task> {
     @Override
     public int compareTo(Task other) {
         if (this.getTime().isEqual(other.getTime())) {
-            return getDesc().toLowerCase().compareTo(other.getDesc().toLowerCase());
+            return InternPool.toLower(getDesc()).compareTo(InternPool.toLower(other.getDesc()));
         }
 
         return getTime().compareTo(other.getTime());
@@ -0,0 +1,32 @@
+package cbot.task;
+
+/**
+ * How a {@link TaskList} holds its tasks in memory.
+ */
+public enum TaskLayout {
+    /** Each task is an object of its own. */
+    OBJECTS,
+
+    /** Tasks are held in columns of types, statuses and times, with equal descriptions sharing one copy. */
+    COLUMNS,
+
+    /** Like COLUMNS, but descriptions are held as UTF-8 bytes outside the heap, so the GC never sees them. */
+    OFF_HEAP;
+
+    /**
+     * Returns the layout with the given name, ignoring case, and with "-" taken as "_".
+     * Unknown or missing names give OBJECTS.
+     *
+     * @param name The name of the layout, e.g. "columns" or "off-heap".
+     * @return The corresponding layout.
+     */
+    public static TaskLayout fromName(String name) {
+        for (TaskLayout layout : values()) {
+            if (name != null && layout.name().equalsIgnoreCase(name.replace('-', '_'))) {
+                return layout;
+            }
+        }
+
+        return OBJECTS;
+    }
+}
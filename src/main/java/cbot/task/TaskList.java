@@ -1,10 +1,22 @@
 package cbot.task;
 
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 /**
  * Stores and manages a list of tasks.
@@ -14,13 +26,43 @@ import java.util.stream.Stream;
 public class TaskList {
     public static final String GAP = "   ";
 
-    private final ArrayList<Task> tasks;
+    // journal record types, see #takeChanges()
+    public static final String LOG_ADD = "ADD";
+    public static final String LOG_MARK = "MARK";
+    public static final String LOG_UNMARK = "UNMARK";
+    public static final String LOG_DELETE = "DEL";
+    public static final String LOG_EDIT = "EDIT";
+    public static final String LOG_SORT = "SORT";
+
+    // lists at least this long are filtered in parallel, a chunk of positions at a time
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    // every task has an ID that stays the same while it is in the list, and IDs ascend down the list;
+    // a null task has not been fetched from the source yet
+    private TaskStore store;
+    private final TaskSource source;
+    // the last task got by position, as lists are mostly read in order
+    private int lastNum = 0;
+    private int lastId = -1;
+
+    // only kept for lists held in memory, and each only once it is first needed
+    private TimeIndex timeIndex = null;
+    private TextIndex textIndex = null;
+    private KindIndex kindIndex = null;
+    // kept for every list once first needed, until the IDs change
+    private IntervalIndex eventIndex = null;
+    // kept for every list once first needed, as it does not depend on IDs
+    private TaskStats stats = null;
+    private final ArrayList<String> changes = new ArrayList<>();
+    private boolean isTracking = false;
+    private long version = 0;
 
     /**
      * Constructs an empty list of tasks.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new ArrayList<>());
     }
 
     /**
@@ -29,7 +71,41 @@ public class TaskList {
      * @param tasks A (not-so-special) list of tasks.
      */
     public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+        this(tasks, TaskLayout.OBJECTS);
+    }
+
+    /**
+     * Constructs a list of the given tasks, held in the given layout.
+     * A list held in columns takes far less memory, and gives out a fresh copy of a task each time it is got.
+     *
+     * @param tasks A list of tasks.
+     * @param layout How the tasks are held.
+     */
+    public TaskList(ArrayList<Task> tasks, TaskLayout layout) {
+        this.store = new TaskStore(tasks, layout);
+        this.source = null;
+    }
+
+    /**
+     * Constructs a list of the tasks in the given source. Tasks are only fetched from the source
+     * when they are needed, and only kept once they are changed.
+     *
+     * @param source Where the tasks are kept.
+     */
+    public TaskList(TaskSource source) {
+        this(source, TaskLayout.OBJECTS);
+    }
+
+    /**
+     * Constructs a list of the tasks in the given source, with tasks held in the given layout once kept.
+     *
+     * @param source Where the tasks are kept.
+     * @param layout How kept tasks are held.
+     * @see #TaskList(ArrayList, TaskLayout)
+     */
+    public TaskList(TaskSource source, TaskLayout layout) {
+        this.store = new TaskStore(source.getCount(), true, layout);
+        this.source = source;
     }
 
     /**
@@ -38,18 +114,48 @@ public class TaskList {
      * @return The number of tasks.
      */
     public int getCount() {
-        return this.tasks.size();
+        return this.store.size();
     }
 
     /**
      * Returns the task at the given position.
+     * Changes to the task may not be kept, so the methods of this list should be used to change it.
      *
      * @param num The 1-based index of the task.
      * @return The requested task.
      */
     public Task getTask(int num) {
         // 1-based counting
-        return this.tasks.get(num - 1);
+        int id = (this.lastNum > 0 && num == this.lastNum + 1)
+                ? this.store.nextId(this.lastId)
+                : this.store.idAt(num - 1);
+
+        this.lastNum = num;
+        this.lastId = id;
+        return getById(id);
+    }
+
+    private Task getById(int id) {
+        Task task = this.store.get(id);
+
+        return (task != null)
+                ? task
+                : this.source.fetch(this.store.originOf(id));
+    }
+
+    private boolean changeTask(int num, Predicate<Task> change) {
+        // once changed, it must stop coming from the source, and a copy from the columns must be put back
+        int id = this.store.idAt(num - 1);
+        Task task = getById(id);
+        if (this.stats != null) {
+            this.stats.remove(task);
+        }
+        boolean wasChanged = change.test(task);
+        this.store.set(id, task);
+        if (this.stats != null) {
+            this.stats.add(task);
+        }
+        return wasChanged;
     }
 
     /**
@@ -59,7 +165,29 @@ public class TaskList {
      * @return A confirmation message.
      */
     public String addTask(Task task) {
-        this.tasks.add(task);
+        if (this.store.isFull()) {
+            // every ID is about to change
+            dropIndexes();
+            this.lastNum = 0;
+        }
+
+        int id = this.store.add(task);
+        if (this.timeIndex != null) {
+            this.timeIndex.add(id, task);
+        }
+        if (this.textIndex != null) {
+            this.textIndex.add(id, task.getDesc());
+        }
+        if (this.kindIndex != null) {
+            this.kindIndex.add(id, task);
+        }
+        if (this.eventIndex != null) {
+            this.eventIndex.add(id, task);
+        }
+        if (this.stats != null) {
+            this.stats.add(task);
+        }
+        logChange(LOG_ADD, task.makeFileFriendly());
         return String.format("\"%s\" added!", task);
     }
 
@@ -69,7 +197,26 @@ public class TaskList {
      * @return A numbered list of tasks.
      */
     public ArrayList<String> listTasks() {
-        return listFilter(t -> true);
+        return listTasks(Page.ALL);
+    }
+
+    /**
+     * Returns an enumerated list of the tasks stored on the given page, i.e. the tasks numbered
+     * from the first to the last on the page. Only those tasks are formatted.
+     *
+     * @param page The page of the list wanted.
+     * @return A numbered list of the tasks on the page.
+     */
+    public ArrayList<String> listTasks(Page page) {
+        ArrayList<String> found = new ArrayList<>();
+
+        // read in order, so each task after the first is got in O(1)
+        int last = Math.min(page.getLast(), getCount());
+        for (int num = page.getFirst(); num <= last; num++) {
+            found.add(String.format("%3d. %s", num, getTask(num)));
+        }
+
+        return found;
     }
 
     /**
@@ -80,12 +227,450 @@ public class TaskList {
      * @return The filtered list of tasks.
      */
     public ArrayList<String> listFilter(Predicate<Task> pred) {
-        return Stream
-                .iterate(1, i -> i + 1).limit(getCount())
-                .filter(i -> pred.test(getTask(i)))
-                .map(i -> String.format("%3d. %s",
-                        i, getTask(i)))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return listFilter(pred, Page.ALL);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks stored filtered by the given clause.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     * <p>
+     * The whole of a long list held in memory is filtered in parallel, in the fork-join pool the caller
+     * runs in (or else the common pool), so the clause must be safe to test from many threads at once.
+     *
+     * @param pred The clause a task must satisfy to be included.
+     * @param page The page of the filtered list wanted.
+     * @return The filtered tasks on the page.
+     */
+    public ArrayList<String> listFilter(Predicate<Task> pred, Page page) {
+        if (page == Page.ALL && this.source == null && getCount() >= PARALLEL_THRESHOLD) {
+            return listFilterParallel(pred);
+        }
+
+        return listMatches(this.store.ids().iterator(), id -> true, pred, page);
+    }
+
+    private ArrayList<String> listFilterParallel(Predicate<Task> pred) {
+        int count = getCount();
+        int chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // each chunk is filtered and formatted on its own, and the chunks are joined back in order
+        List<ArrayList<String>> chunks = IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(chunk -> filterRange(chunk * CHUNK_SIZE + 1, Math.min(count, (chunk + 1) * CHUNK_SIZE),
+                        pred))
+                .collect(Collectors.toList());
+
+        ArrayList<String> found = new ArrayList<>(chunks.stream().mapToInt(ArrayList::size).sum());
+        for (ArrayList<String> chunk : chunks) {
+            found.addAll(chunk);
+        }
+
+        return found;
+    }
+
+    private ArrayList<String> filterRange(int first, int last, Predicate<Task> pred) {
+        // positions are walked by ID here, as the cursor in getTask can't be shared between threads
+        ArrayList<String> found = new ArrayList<>();
+
+        int id = this.store.idAt(first - 1);
+        for (int num = first; num <= last; num++) {
+            Task task = this.store.get(id);
+            if (pred.test(task)) {
+                found.add(String.format("%3d. %s", num, task));
+            }
+            id = this.store.nextId(id);
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns a list of the tasks stored that fall before the given datetime.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param time The datetime to compare against.
+     * @return The tasks that fall before the datetime.
+     * @see Task#compareTo(Task)
+     */
+    public ArrayList<String> listBefore(LocalDateTime time) {
+        return listBefore(time, Page.ALL);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks stored that fall before the given datetime.
+     *
+     * @param time The datetime to compare against.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     * @see #listBefore(LocalDateTime)
+     */
+    public ArrayList<String> listBefore(LocalDateTime time, Page page) {
+        // same as comparing with a Deadline at that time, as no description comes before ""
+        return listBetween(LocalDateTime.MIN, time,
+                t -> t.hasTime() && t.getTime().isBefore(time), page);
+    }
+
+    /**
+     * Returns a list of the tasks stored that fall after the given datetime.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param time The datetime to compare against.
+     * @return The tasks that fall after the datetime.
+     * @see Task#compareTo(Task)
+     */
+    public ArrayList<String> listAfter(LocalDateTime time) {
+        return listAfter(time, Page.ALL);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks stored that fall after the given datetime.
+     *
+     * @param time The datetime to compare against.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     * @see #listAfter(LocalDateTime)
+     */
+    public ArrayList<String> listAfter(LocalDateTime time, Page page) {
+        // same as comparing with a Deadline at that time, as every other description comes after ""
+        return listBetween(time, LocalDateTime.MAX,
+                t -> t.hasTime() && (t.getTime().isAfter(time)
+                        || (t.getTime().isEqual(time) && !t.getDesc().isEmpty())), page);
+    }
+
+    private ArrayList<String> listBetween(LocalDateTime from, LocalDateTime to, Predicate<Task> pred, Page page) {
+        return listScan(TaskScan.between(from, to), pred, page);
+    }
+
+    /**
+     * Returns a list of the tasks stored whose descriptions contain the given text, ignoring case.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param text The text to search for.
+     * @return The tasks containing the text.
+     */
+    public ArrayList<String> listFind(String text) {
+        return listFind(text, Page.ALL);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks stored whose descriptions contain the given text.
+     *
+     * @param text The text to search for.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     * @see #listFind(String)
+     */
+    public ArrayList<String> listFind(String text, Page page) {
+        return listScan(TaskScan.text(text), t -> true, page);
+    }
+
+    /**
+     * Returns a list of the tasks stored that are of any of the given types, and have the given status.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param symbols The symbols of the task types wanted (e.g. "D"), or none for every type.
+     * @param isDone Whether the tasks wanted are done, or null for either.
+     * @return The tasks of those types and status.
+     * @see Task#getSymbol()
+     */
+    public ArrayList<String> listKinds(Collection<String> symbols, Boolean isDone) {
+        return listKinds(symbols, isDone, Page.ALL);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks stored that are of any of the given types,
+     * and have the given status.
+     *
+     * @param symbols The symbols of the task types wanted (e.g. "D"), or none for every type.
+     * @param isDone Whether the tasks wanted are done, or null for either.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     * @see #listKinds(Collection, Boolean)
+     */
+    public ArrayList<String> listKinds(Collection<String> symbols, Boolean isDone, Page page) {
+        return listScan(TaskScan.kinds(symbols, isDone), t -> true, page);
+    }
+
+    /**
+     * Returns the given page of the list of the tasks found by the given scan that also satisfy the given clause.
+     * Only the tasks the scan finds are tested against the clause, so a scan that finds few tasks
+     * makes for a fast search.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param scan How to find the tasks to test.
+     * @param pred The clause a task found must also satisfy to be included.
+     * @param page The page of the tasks wanted.
+     * @return The tasks on the page.
+     * @see #estimate(TaskScan)
+     */
+    public ArrayList<String> listScan(TaskScan scan, Predicate<Task> pred, Page page) {
+        if (this.source != null) {
+            // no indexes are kept, so every task is tested, but tasks still in the source are only
+            // fetched if they could fall in range
+            IntPredicate mightMatch = (scan.getBy() != TaskScan.By.TIME)
+                    ? id -> true
+                    : id -> this.store.get(id) != null
+                            || this.source.mightBeBetween(this.store.originOf(id), scan.getFrom(), scan.getTo());
+            return listMatches(this.store.ids().iterator(), mightMatch, t -> scan.finds(t) && pred.test(t), page);
+        }
+
+        switch (scan.getBy()) {
+        case TIME:
+            return listIds(findBetween(scan.getFrom(), scan.getTo()), pred, page);
+        case KINDS:
+            return listMatches(findKinds(scan.getSymbols(), scan.getIsDone()).stream().iterator(),
+                    id -> true, pred, page);
+        case TEXT:
+            return listIds(getTextIndex().find(scan.getText(), this.store.ids()), pred, page);
+        default:
+            return listFilter(pred, page);
+        }
+    }
+
+    /**
+     * Returns at most how many tasks the given scan would find, i.e. how many tasks
+     * {@link #listScan(TaskScan, Predicate, Page)} would test against its clause.
+     *
+     * @param scan How the tasks would be found.
+     * @return The number of tasks that would be found, or the number of tasks if every one would be.
+     */
+    public int estimate(TaskScan scan) {
+        if (this.source != null) {
+            return getCount();
+        }
+
+        switch (scan.getBy()) {
+        case TIME:
+            ColumnSlots columns = this.store.getColumns();
+            return (columns != null)
+                    ? columns.between(scan.getFrom(), scan.getTo()).size()
+                    : getTimeIndex().count(scan.getFrom(), scan.getTo());
+        case KINDS:
+            return findKinds(scan.getSymbols(), scan.getIsDone()).cardinality();
+        case TEXT:
+            return getTextIndex().estimate(scan.getText(), getCount());
+        default:
+            return getCount();
+        }
+    }
+
+    private ArrayList<Integer> findBetween(LocalDateTime from, LocalDateTime to) {
+        // the time column is scanned instead of keeping an index
+        ColumnSlots columns = this.store.getColumns();
+        return (columns != null)
+                ? columns.between(from, to)
+                : getTimeIndex().between(from, to);
+    }
+
+    private BitSet findKinds(Collection<String> symbols, Boolean isDone) {
+        // the type and status columns are scanned instead of keeping an index
+        ColumnSlots columns = this.store.getColumns();
+        if (columns != null) {
+            return columns.selectKinds(symbols, isDone);
+        }
+
+        if (this.kindIndex == null) {
+            this.kindIndex = new KindIndex();
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                this.kindIndex.add(id, this.store.get(id));
+            }
+        }
+
+        return this.kindIndex.select(symbols, isDone);
+    }
+
+    private TimeIndex getTimeIndex() {
+        if (this.timeIndex == null) {
+            this.timeIndex = new TimeIndex();
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                this.timeIndex.add(id, this.store.get(id));
+            }
+        }
+
+        return this.timeIndex;
+    }
+
+    private IntervalIndex getEventIndex() {
+        if (this.eventIndex == null) {
+            // kept even for a list with a source, as it only holds the times of events; the source is read
+            // once to build it, skipping the tasks it knows have no time
+            this.eventIndex = new IntervalIndex();
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                if (this.source == null || this.store.get(id) != null || this.source.mightBeBetween(
+                        this.store.originOf(id), LocalDateTime.MIN, LocalDateTime.MAX)) {
+                    this.eventIndex.add(id, getById(id));
+                }
+            }
+        }
+
+        return this.eventIndex;
+    }
+
+    private TextIndex getTextIndex() {
+        if (this.textIndex == null) {
+            this.textIndex = new TextIndex();
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                this.textIndex.add(id, this.store.get(id).getDesc());
+            }
+        }
+
+        return this.textIndex;
+    }
+
+    /**
+     * Returns the given number of the earliest time-based tasks that are not done and fall after
+     * the given datetime, earliest first, as {@link #sort()} would order them. The list itself is left as it is.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param time The datetime the tasks must fall after.
+     * @param count The most tasks wanted.
+     * @return The earliest tasks after the datetime.
+     * @see Task#compareTo(Task)
+     */
+    public ArrayList<String> listNext(LocalDateTime time, int count) {
+        assert count > 0 : "Asked for no tasks";
+
+        Iterator<Integer> ids;
+        // the time index gives tasks in order of time, so the search can stop at the first too late
+        boolean isInOrder = false;
+        ColumnSlots columns = this.store.getColumns();
+        if (this.source != null) {
+            ids = this.store.ids()
+                    .filter(id -> this.store.get(id) != null
+                            || this.source.mightBeBetween(this.store.originOf(id), time, LocalDateTime.MAX))
+                    .iterator();
+        } else if (columns != null) {
+            ids = columns.between(time, LocalDateTime.MAX).iterator();
+        } else {
+            ids = getTimeIndex().after(time);
+            isInOrder = true;
+        }
+
+        // the latest of the tasks kept so far is on top, ready to make way for an earlier one
+        Comparator<Map.Entry<Integer, Task>> earliest = Map.Entry.<Integer, Task>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Integer, Task>> kept = new PriorityQueue<>(count + 1, earliest.reversed());
+
+        while (ids.hasNext()) {
+            int id = ids.next();
+            Task task = getById(id);
+            if (!task.hasTime() || !task.getTime().isAfter(time) || task.getStatus().equals(Task.DONE_TRUE)) {
+                continue;
+            }
+            if (isInOrder && kept.size() == count && task.getTime().isAfter(kept.peek().getValue().getTime())) {
+                break;
+            }
+
+            kept.offer(new AbstractMap.SimpleEntry<>(id, task));
+            if (kept.size() > count) {
+                kept.poll();
+            }
+        }
+
+        ArrayList<Map.Entry<Integer, Task>> next = new ArrayList<>(kept);
+        next.sort(earliest);
+        ArrayList<String> found = new ArrayList<>();
+        for (Map.Entry<Integer, Task> entry : next) {
+            found.add(String.format("%3d. %s", this.store.indexOf(entry.getKey()) + 1, entry.getValue()));
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns a list of the other events that overlap the event at the given position, i.e. that start
+     * before it ends and end after it starts. Nothing is listed if the task there is not an event.
+     * Tasks are numbered relative to their position entire list, not the filtered list.
+     *
+     * @param num The 1-based index of the event.
+     * @return The events that overlap it.
+     */
+    public ArrayList<String> listOverlaps(int num) {
+        assert !notInRange(num) : "Invalid index to check";
+
+        int id = this.store.idAt(num - 1);
+        Task task = getById(id);
+        if (!(task instanceof Event)) {
+            return new ArrayList<>();
+        }
+
+        ArrayList<Integer> foundIds = new ArrayList<>();
+        getEventIndex().overlapping(task.getTime(), ((Event) task).getEndTime(), otherId -> {
+            if (otherId != id) {
+                foundIds.add(otherId);
+            }
+        });
+
+        Collections.sort(foundIds);
+        return listIds(foundIds, t -> true, Page.ALL);
+    }
+
+    /**
+     * Returns every pair of events in the list that overlap, each as the event higher up the list and,
+     * on the next line, the one it overlaps. Pairs are in list order.
+     *
+     * @return The pairs of overlapping events.
+     * @see #listOverlaps(int)
+     */
+    public ArrayList<String> listConflicts() {
+        // a pair of IDs is packed into one long, the lower ID first, so that sorting them sorts the pairs
+        ArrayList<Long> pairs = new ArrayList<>();
+        getEventIndex().overlappingPairs((a, b) -> pairs.add(((long) Math.min(a, b) << 32) | Math.max(a, b)));
+        Collections.sort(pairs);
+
+        ArrayList<String> found = new ArrayList<>(pairs.size());
+        for (long pair : pairs) {
+            int first = (int) (pair >>> 32);
+            int second = (int) pair;
+            found.add(String.format("%3d. %s\n%sclashes with %d. %s",
+                    this.store.indexOf(first) + 1, getById(first), GAP, this.store.indexOf(second) + 1,
+                    getById(second)));
+        }
+
+        return found;
+    }
+
+    private ArrayList<String> listIds(ArrayList<Integer> foundIds, Predicate<Task> pred, Page page) {
+        return listMatches(foundIds.stream().mapToInt(Integer::intValue).iterator(), id -> true, pred, page);
+    }
+
+    private ArrayList<String> listMatches(PrimitiveIterator.OfInt ids, IntPredicate mightMatch,
+            Predicate<Task> pred, Page page) {
+        // ascending IDs are in list order; only the tasks on the page are formatted, and the search
+        // stops once past it
+        ArrayList<String> found = new ArrayList<>();
+
+        int matchCount = 0;
+        while (ids.hasNext() && matchCount < page.getLast()) {
+            int id = ids.nextInt();
+            if (!mightMatch.test(id)) {
+                continue;
+            }
+
+            Task task = getById(id);
+            if (pred.test(task) && ++matchCount >= page.getFirst()) {
+                found.add(String.format("%3d. %s", this.store.indexOf(id) + 1, task));
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the counts of the tasks in the list. They are worked out the first time they are asked for,
+     * and kept up to date from then on, so asking again takes no time however long the list is.
+     *
+     * @return The counts of the tasks.
+     */
+    public TaskStats getStats() {
+        if (this.stats == null) {
+            this.stats = new TaskStats();
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                this.stats.add(getById(id));
+            }
+        }
+
+        return this.stats;
     }
 
     /**
@@ -132,13 +717,19 @@ public class TaskList {
     public String mark(int num) {
         assert !notInRange(num) : "Invalid index to mark";
 
-        boolean wasChanged = getTask(num).mark();
+        boolean wasChanged = changeTask(num, Task::mark);
 
         if (!wasChanged) {
             return "You've already done:\n"
                     + GAP + getTask(num);
         }
 
+        if (this.kindIndex != null) {
+            this.kindIndex.setDone(this.store.idAt(num - 1), true);
+        }
+
+        logChange(LOG_MARK, String.valueOf(num));
+
         return "Woohoo! You've completed:\n"
                 + GAP + getTask(num);
     }
@@ -153,13 +744,19 @@ public class TaskList {
     public String unmark(int num) {
         assert !notInRange(num) : "Invalid index to unmark";
 
-        boolean wasChanged = getTask(num).unmark();
+        boolean wasChanged = changeTask(num, Task::unmark);
 
         if (!wasChanged) {
             return "Hm, you haven't yet done:\n"
                     + GAP + getTask(num);
         }
 
+        if (this.kindIndex != null) {
+            this.kindIndex.setDone(this.store.idAt(num - 1), false);
+        }
+
+        logChange(LOG_UNMARK, String.valueOf(num));
+
         return "Aw, okay :( I've unmarked:\n"
                 + GAP + getTask(num);
     }
@@ -173,11 +770,123 @@ public class TaskList {
     public String delTask(int num) {
         assert !notInRange(num) : "Invalid index to delete";
 
-        Task removedTask = tasks.remove(num - 1);
+        int id = this.store.idAt(num - 1);
+        Task removedTask = getById(id);
+        this.store.remove(id);
+        unindex(id, removedTask);
+        logChange(LOG_DELETE, String.valueOf(num));
         return "Got it! Deleted:\n"
                 + GAP + removedTask;
     }
 
+    /**
+     * Removes the tasks at the given positions from the list, all at once.
+     * Positions are those before any task is removed, and repeats are ignored.
+     *
+     * @param nums The 1-based indices of the tasks.
+     * @return The removed tasks, in the order given.
+     */
+    public ArrayList<Task> delTasks(List<Integer> nums) {
+        List<Integer> distinctNums = distinct(nums);
+        int[] removedIds = new int[distinctNums.size()];
+        ArrayList<Task> removedTasks = new ArrayList<>(distinctNums.size());
+
+        // every position is read before anything moves
+        for (int i = 0; i < removedIds.length; i++) {
+            assert !notInRange(distinctNums.get(i)) : "Invalid index to delete";
+            removedIds[i] = this.store.idAt(distinctNums.get(i) - 1);
+            removedTasks.add(getById(removedIds[i]));
+        }
+
+        this.store.removeAll(removedIds);
+        for (int i = 0; i < removedIds.length; i++) {
+            unindex(removedIds[i], removedTasks.get(i));
+        }
+
+        logChange(LOG_DELETE, toArgs(distinctNums));
+        return removedTasks;
+    }
+
+    private void unindex(int id, Task task) {
+        this.lastNum = 0;
+        if (this.timeIndex != null) {
+            this.timeIndex.remove(id, task);
+        }
+        if (this.textIndex != null) {
+            this.textIndex.remove(id);
+        }
+        if (this.kindIndex != null) {
+            this.kindIndex.remove(id, task);
+        }
+        if (this.eventIndex != null) {
+            this.eventIndex.remove(id, task);
+        }
+        if (this.stats != null) {
+            this.stats.remove(task);
+        }
+    }
+
+    /**
+     * Marks the tasks at the given positions as done, all at once. Repeats are ignored.
+     *
+     * @param nums The 1-based indices of the tasks.
+     * @return The number of tasks that were not done before.
+     */
+    public int markTasks(List<Integer> nums) {
+        return setDone(nums, true, LOG_MARK);
+    }
+
+    /**
+     * Marks the tasks at the given positions as not done, all at once. Repeats are ignored.
+     *
+     * @param nums The 1-based indices of the tasks.
+     * @return The number of tasks that were done before.
+     */
+    public int unmarkTasks(List<Integer> nums) {
+        return setDone(nums, false, LOG_UNMARK);
+    }
+
+    private int setDone(List<Integer> nums, boolean isDone, String logType) {
+        ArrayList<Integer> changedNums = new ArrayList<>();
+
+        for (int num : distinct(nums)) {
+            assert !notInRange(num) : "Invalid index to mark or unmark";
+
+            boolean wasChanged = changeTask(num, isDone ? Task::mark : Task::unmark);
+            if (wasChanged) {
+                changedNums.add(num);
+                if (this.kindIndex != null) {
+                    this.kindIndex.setDone(this.store.idAt(num - 1), isDone);
+                }
+            }
+        }
+
+        if (!changedNums.isEmpty()) {
+            logChange(logType, toArgs(changedNums));
+        }
+        return changedNums.size();
+    }
+
+    private static List<Integer> distinct(List<Integer> nums) {
+        BitSet seen = new BitSet();
+        ArrayList<Integer> distinctNums = new ArrayList<>(nums.size());
+
+        for (int num : nums) {
+            if (!seen.get(num)) {
+                seen.set(num);
+                distinctNums.add(num);
+            }
+        }
+
+        return distinctNums;
+    }
+
+    private static String[] toArgs(List<Integer> nums) {
+        return nums.stream()
+                .map(String::valueOf)
+                .toArray(String[]::new);
+    }
+
     /**
      * Edits the description of the task at the given position.
      *
@@ -190,10 +899,18 @@ public class TaskList {
         assert !notInRange(num) : "Invalid index to edit";
         assert newDesc.length() > 0 : "New description is empty";
 
-        Task editedTask = getTask(num);
-        editedTask.editDesc(newDesc);
+        changeTask(num, t -> {
+            t.editDesc(newDesc);
+            return true;
+        });
+        if (this.textIndex != null) {
+            int id = this.store.idAt(num - 1);
+            this.textIndex.remove(id);
+            this.textIndex.add(id, newDesc);
+        }
+        logChange(LOG_EDIT, String.valueOf(num), newDesc);
         return "Done! It's been changed to:\n"
-                + GAP + editedTask;
+                + GAP + getTask(num);
     }
 
     /**
@@ -202,19 +919,88 @@ public class TaskList {
      * @see cbot.task.Task#compareTo(Task)
      */
     public void sort() {
-        Collections.sort(tasks);
+        if (this.source != null) {
+            for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+                if (this.store.get(id) == null) {
+                    this.store.set(id, getById(id));
+                }
+            }
+        }
+
+        this.store = this.store.sorted();
+        dropIndexes();
+        this.lastNum = 0;
+        logChange(LOG_SORT);
+    }
+
+    private void dropIndexes() {
+        this.timeIndex = null;
+        this.textIndex = null;
+        this.kindIndex = null;
+        this.eventIndex = null;
     }
 
     /**
-     * Returns a string representation of the entire TaskList, for the convenience of file-saving.
+     * Starts recording every change made to the list, so that it can be saved as a journal record
+     * instead of rewriting the whole list.
+     *
+     * @see #takeChanges()
+     */
+    public void trackChanges() {
+        this.isTracking = true;
+    }
+
+    /**
+     * Returns the changes made since the last call, and forgets them. Each change is one journal record,
+     * e.g. "MARK ;; 3" or "ADD ;; T ;;   ;; task". Nothing is recorded unless {@link #trackChanges()} was called.
+     *
+     * @return The list of journal records, oldest first.
+     * @see cbot.util.FileStuff#saveFile(TaskList)
+     */
+    public ArrayList<String> takeChanges() {
+        ArrayList<String> taken = new ArrayList<>(this.changes);
+        this.changes.clear();
+        return taken;
+    }
+
+    /**
+     * Returns the number of changes made to the list so far. It goes up with every change,
+     * so anything worked out from the list stays right for as long as the version is the same.
+     *
+     * @return The version of the list.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    private void logChange(String type, String ... args) {
+        // every change is logged, whether or not it is kept
+        this.version++;
+        if (!this.isTracking) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder(type);
+        for (String arg : args) {
+            sb.append(Task.SEP).append(arg);
+        }
+
+        this.changes.add(sb.toString());
+    }
+
+    /**
+     * Returns a string representation of the entire TaskList, in the save-file format.
+     * This builds the whole list as one String, so saving writes each task in turn instead.
      *
      * @return A string representation of the TaskList, for saving.
      * @see cbot.task.Task#makeFileFriendly()
-     * @see cbot.util.FileStuff#saveFile(TaskList)
      */
     public String makeFileFriendly() {
-        return tasks.stream()
-                .map(Task::makeFileFriendly)
-                .collect(Collectors.joining("\n"));
+        StringJoiner sj = new StringJoiner("\n");
+        for (int id = this.store.firstId(); id >= 0; id = this.store.nextId(id)) {
+            sj.add(getById(id).makeFileFriendly());
+        }
+
+        return sj.toString();
     }
 }
@@ -0,0 +1,151 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+/**
+ * A way of finding tasks in a {@link TaskList}: every task, or the tasks in a range of time, of some
+ * types and status, or containing some text. Each but the first is answered from an index where the
+ * list keeps one, so only the tasks it finds are looked at.
+ *
+ * @see TaskList#listScan(TaskScan, Predicate, Page)
+ * @see TaskList#estimate(TaskScan)
+ */
+public class TaskScan {
+    /**
+     * What a scan looks tasks up by.
+     */
+    enum By {
+        ALL, TIME, KINDS, TEXT
+    }
+
+    private static final TaskScan ALL = new TaskScan(By.ALL, null, null, Collections.emptyList(), null, null);
+
+    private final By by;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Collection<String> symbols;
+    private final Boolean isDone;
+    private final String text;
+
+    private TaskScan(By by, LocalDateTime from, LocalDateTime to, Collection<String> symbols, Boolean isDone,
+            String text) {
+        this.by = by;
+        this.from = from;
+        this.to = to;
+        this.symbols = symbols;
+        this.isDone = isDone;
+        this.text = text;
+    }
+
+    /**
+     * Returns the scan of every task.
+     *
+     * @return The scan.
+     */
+    public static TaskScan all() {
+        return ALL;
+    }
+
+    /**
+     * Returns the scan of the time-based tasks with times between the given datetimes (inclusive).
+     *
+     * @param from The earliest datetime.
+     * @param to The latest datetime.
+     * @return The scan.
+     * @see Task#getTime()
+     */
+    public static TaskScan between(LocalDateTime from, LocalDateTime to) {
+        return new TaskScan(By.TIME, from, to, Collections.emptyList(), null, null);
+    }
+
+    /**
+     * Returns the scan of the tasks of any of the given types, and with the given status.
+     *
+     * @param symbols The symbols of the task types wanted (e.g. "D"), or none for every type.
+     * @param isDone Whether the tasks wanted are done, or null for either.
+     * @return The scan.
+     * @see Task#getSymbol()
+     */
+    public static TaskScan kinds(Collection<String> symbols, Boolean isDone) {
+        return new TaskScan(By.KINDS, null, null, new ArrayList<>(symbols), isDone, null);
+    }
+
+    /**
+     * Returns the scan of the tasks whose descriptions contain the given text, ignoring case.
+     *
+     * @param text The text to search for.
+     * @return The scan.
+     */
+    public static TaskScan text(String text) {
+        return new TaskScan(By.TEXT, null, null, Collections.emptyList(), null, text);
+    }
+
+    By getBy() {
+        return this.by;
+    }
+
+    LocalDateTime getFrom() {
+        return this.from;
+    }
+
+    LocalDateTime getTo() {
+        return this.to;
+    }
+
+    Collection<String> getSymbols() {
+        return this.symbols;
+    }
+
+    Boolean getIsDone() {
+        return this.isDone;
+    }
+
+    String getText() {
+        return this.text;
+    }
+
+    /**
+     * Returns true if the given task is one this scan finds, for lists that have no index to look it up in.
+     *
+     * @param task The task to test.
+     * @return Whether the scan finds the task.
+     */
+    boolean finds(Task task) {
+        switch (this.by) {
+        case TIME:
+            return task.hasTime() && !task.getTime().isBefore(this.from) && !task.getTime().isAfter(this.to);
+        case KINDS:
+            return (this.symbols.isEmpty() || this.symbols.contains(task.getSymbol()))
+                    && (this.isDone == null || this.isDone == task.getStatus().equals(Task.DONE_TRUE));
+        case TEXT:
+            return InternPool.toLower(task.getDesc()).contains(this.text.toLowerCase());
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * Returns a description of the scan, e.g. "time index [2023-03-01T00:00 .. +999999999-12-31T23:59:59.999999999]".
+     *
+     * @return The description of the scan.
+     */
+    @Override
+    public String toString() {
+        switch (this.by) {
+        case TIME:
+            return String.format("time index [%s .. %s]", this.from, this.to);
+        case KINDS:
+            String status = (this.isDone == null) ? "done or not" : this.isDone ? "done" : "not done";
+            String types = this.symbols.isEmpty() ? "any type" : String.join("/", this.symbols);
+            return String.format("type/status index [%s, %s]", types, status);
+        case TEXT:
+            return String.format("text index \"%s\"", this.text);
+        default:
+            return "full scan";
+        }
+    }
+}
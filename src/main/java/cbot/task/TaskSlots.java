@@ -0,0 +1,59 @@
+package cbot.task;
+
+/**
+ * Holds the tasks of a {@link TaskStore}, each in the slot numbered by its ID.
+ *
+ * @see ObjectSlots
+ * @see ColumnSlots
+ */
+interface TaskSlots {
+    /**
+     * Returns the number of slots.
+     *
+     * @return The number of slots.
+     */
+    int capacity();
+
+    /**
+     * Returns the task in the given slot, or null if it is empty.
+     *
+     * @param id The ID of the task.
+     * @return The task, or null.
+     */
+    Task get(int id);
+
+    /**
+     * Puts a task in the given slot, replacing whatever was there.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void set(int id, Task task);
+
+    /**
+     * Empties the given slot.
+     *
+     * @param id The ID of the task.
+     */
+    void clear(int id);
+
+    /**
+     * Returns new slots of the given capacity holding the tasks in the given slots, in the order given,
+     * from slot 0 onwards. These slots should not be used after this.
+     *
+     * @param ids The IDs of the tasks.
+     * @param capacity The number of slots.
+     * @return The new slots.
+     */
+    TaskSlots pack(int[] ids, int capacity);
+
+    /**
+     * Returns the given IDs, ordered the way their tasks would be sorted. Tasks that compare equal
+     * keep their order.
+     *
+     * @param ids The IDs of the tasks, none of them empty.
+     * @return The IDs, sorted by their tasks.
+     * @see Task#compareTo(Task)
+     */
+    int[] sort(int[] ids);
+}
@@ -0,0 +1,39 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Supplies saved tasks to a TaskList only when they are needed, so that they need not all be
+ * held in memory at once.
+ *
+ * @see TaskList#TaskList(TaskSource)
+ */
+public interface TaskSource {
+    /**
+     * Returns the number of tasks in the source.
+     *
+     * @return The number of tasks.
+     */
+    int getCount();
+
+    /**
+     * Returns the task at the given position in the source. Calling this again may give a fresh copy,
+     * so changes to the task are not kept by the source.
+     *
+     * @param index The 0-based index of the task.
+     * @return The task.
+     */
+    Task fetch(int index);
+
+    /**
+     * Returns false if the task at the given position certainly has no time between the given datetimes
+     * (inclusive), or no time at all. Otherwise, returns true. This must not need the task to be fetched.
+     *
+     * @param index The 0-based index of the task.
+     * @param from The earliest datetime.
+     * @param to The latest datetime.
+     * @return Whether the task might fall between the datetimes.
+     * @see Task#getTime()
+     */
+    boolean mightBeBetween(int index, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,142 @@
+package cbot.task;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the tasks in a list by type and status, and the Deadlines and Events not yet done by the day
+ * they fall on. The counts are kept up to date as the list changes, so reading them never needs a look
+ * at the tasks themselves.
+ *
+ * @see TaskList#getStats()
+ */
+public class TaskStats {
+    private static final int DEADLINES = 0;
+    private static final int EVENTS = 1;
+
+    // the number of tasks of each type, and how many of them are done
+    private final HashMap<String, Integer> counts = new HashMap<>();
+    private final HashMap<String, Integer> doneCounts = new HashMap<>();
+    // the Deadlines and Events not done yet on each day that has any
+    private final TreeMap<LocalDate, int[]> byDay = new TreeMap<>();
+
+    /**
+     * Counts the given task in.
+     *
+     * @param task The task.
+     */
+    void add(Task task) {
+        adjust(task, 1);
+    }
+
+    /**
+     * Counts the given task out.
+     *
+     * @param task The task, as it was when it was counted in.
+     */
+    void remove(Task task) {
+        adjust(task, -1);
+    }
+
+    private void adjust(Task task, int by) {
+        String symbol = task.getSymbol();
+        this.counts.merge(symbol, by, Integer::sum);
+        boolean isDone = task.getStatus().equals(Task.DONE_TRUE);
+        if (isDone) {
+            this.doneCounts.merge(symbol, by, Integer::sum);
+        }
+
+        if (isDone || !task.hasTime()) {
+            return;
+        }
+
+        LocalDate day = task.getTime().toLocalDate();
+        int[] dayCounts = this.byDay.computeIfAbsent(day, d -> new int[2]);
+        dayCounts[(task instanceof Event) ? EVENTS : DEADLINES] += by;
+        if (dayCounts[DEADLINES] == 0 && dayCounts[EVENTS] == 0) {
+            this.byDay.remove(day);
+        }
+    }
+
+    /**
+     * Returns the number of tasks of the given type.
+     *
+     * @param symbol The symbol of the task type (e.g. "D").
+     * @return The number of tasks.
+     * @see Task#getSymbol()
+     */
+    public int getCount(String symbol) {
+        return this.counts.getOrDefault(symbol, 0);
+    }
+
+    /**
+     * Returns the number of tasks of the given type that are done.
+     *
+     * @param symbol The symbol of the task type (e.g. "D").
+     * @return The number of tasks done.
+     */
+    public int getDoneCount(String symbol) {
+        return this.doneCounts.getOrDefault(symbol, 0);
+    }
+
+    /**
+     * Returns the number of tasks of every type.
+     *
+     * @return The number of tasks.
+     */
+    public int getCount() {
+        return this.counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Returns the number of tasks of every type that are done.
+     *
+     * @return The number of tasks done.
+     */
+    public int getDoneCount() {
+        return this.doneCounts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Returns the number of Deadlines not done yet that were due on a day before the given one.
+     *
+     * @param today The day to count up to, not included.
+     * @return The number of overdue Deadlines.
+     */
+    public int getOverdueCount(LocalDate today) {
+        return sum(this.byDay.headMap(today, false), DEADLINES);
+    }
+
+    /**
+     * Returns the number of Deadlines not done yet that are due between the given days (inclusive).
+     *
+     * @param from The first day.
+     * @param to The last day.
+     * @return The number of Deadlines.
+     */
+    public int getDeadlineCount(LocalDate from, LocalDate to) {
+        return sum(this.byDay.subMap(from, true, to, true), DEADLINES);
+    }
+
+    /**
+     * Returns the number of Events not done yet that start between the given days (inclusive).
+     *
+     * @param from The first day.
+     * @param to The last day.
+     * @return The number of Events.
+     */
+    public int getEventCount(LocalDate from, LocalDate to) {
+        return sum(this.byDay.subMap(from, true, to, true), EVENTS);
+    }
+
+    private static int sum(Map<LocalDate, int[]> days, int column) {
+        int total = 0;
+        for (int[] dayCounts : days.values()) {
+            total += dayCounts[column];
+        }
+
+        return total;
+    }
+}
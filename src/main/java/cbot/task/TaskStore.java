@@ -0,0 +1,329 @@
+package cbot.task;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Holds the tasks of a list by ID. IDs are given out in ascending order as tasks are added, so they
+ * also ascend down the list, and a task keeps its ID until it is deleted.
+ * A Fenwick tree counts the IDs in use, so converting between an ID and its position in the list,
+ * adding and deleting all take O(log n) time. IDs are given out afresh when too many have been deleted.
+ * The tasks themselves are held as objects or in columns (see {@link TaskSlots}).
+ */
+class TaskStore {
+    private static final int MIN_CAPACITY = 16;
+
+    private TaskSlots slots;
+    // where each task is in the TaskSource, or -1; null if there is no source
+    private int[] origins;
+    private BitSet used;
+    // tree[i] counts the IDs in use in (i - lowestOneBit(i), i], taking IDs as 1-based
+    private int[] tree;
+    private int size;
+    private int nextId;
+
+    /**
+     * Constructs a store of the given tasks, in order.
+     *
+     * @param tasks The tasks.
+     * @param layout How the tasks are held.
+     */
+    TaskStore(List<Task> tasks, TaskLayout layout) {
+        this(tasks.size(), false, layout);
+        for (int id = 0; id < tasks.size(); id++) {
+            this.slots.set(id, tasks.get(id));
+        }
+    }
+
+    /**
+     * Constructs a store of the given number of tasks, all yet to be fetched from a source,
+     * where they are in the same order.
+     *
+     * @param count The number of tasks in the source.
+     * @param hasSource Whether the tasks are to be fetched from a source.
+     * @param layout How the tasks are held once they are fetched.
+     */
+    TaskStore(int count, boolean hasSource, TaskLayout layout) {
+        this(slotsFor(layout, capacityFor(count)), count);
+
+        if (hasSource) {
+            this.origins = new int[this.slots.capacity()];
+            for (int id = 0; id < count; id++) {
+                this.origins[id] = id;
+            }
+        }
+    }
+
+    private TaskStore(TaskSlots slots, int count) {
+        this.slots = slots;
+        this.origins = null;
+        this.used = new BitSet(slots.capacity());
+        this.used.set(0, count);
+        this.size = count;
+        this.nextId = count;
+        buildTree(slots.capacity());
+    }
+
+    private static TaskSlots slotsFor(TaskLayout layout, int capacity) {
+        switch (layout) {
+        case COLUMNS:
+            return new ColumnSlots(capacity, new StringPool());
+        case OFF_HEAP:
+            return new ColumnSlots(capacity, new DescArena());
+        default:
+            return new ObjectSlots(capacity);
+        }
+    }
+
+    private static int capacityFor(int count) {
+        return Math.max(MIN_CAPACITY, count * 2);
+    }
+
+    private void buildTree(int capacity) {
+        this.tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            this.tree[i] += this.used.get(i - 1) ? 1 : 0;
+            int parent = i + Integer.lowestOneBit(i);
+            if (parent <= capacity) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    private void update(int id, int delta) {
+        for (int i = id + 1; i < this.tree.length; i += Integer.lowestOneBit(i)) {
+            this.tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return The number of tasks.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the ID of the task at the given position.
+     *
+     * @param index The 0-based position of the task.
+     * @return The ID of the task.
+     */
+    int idAt(int index) {
+        assert index >= 0 && index < this.size : "Position out of range";
+
+        // walk down the tree, skipping whole blocks of IDs that come before the task
+        int id = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(this.tree.length - 1); step > 0; step >>= 1) {
+            int next = id + step;
+            if (next < this.tree.length && this.tree[next] < remaining) {
+                id = next;
+                remaining -= this.tree[next];
+            }
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the position of the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @return The 0-based position of the task.
+     */
+    int indexOf(int id) {
+        int count = 0;
+        for (int i = id; i > 0; i -= Integer.lowestOneBit(i)) {
+            count += this.tree[i];
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the first ID in use, or -1 if there are no tasks.
+     *
+     * @return The first ID.
+     */
+    int firstId() {
+        return this.used.nextSetBit(0);
+    }
+
+    /**
+     * Returns the ID in use after the given one, or -1 if it is the last.
+     *
+     * @param id The ID of a task.
+     * @return The next ID.
+     */
+    int nextId(int id) {
+        return this.used.nextSetBit(id + 1);
+    }
+
+    /**
+     * Returns every ID in use, in ascending order.
+     *
+     * @return The IDs.
+     */
+    IntStream ids() {
+        return this.used.stream();
+    }
+
+    /**
+     * Returns the task with the given ID, or null if it is yet to be fetched from the source.
+     *
+     * @param id The ID of the task.
+     * @return The task, or null.
+     */
+    Task get(int id) {
+        return this.slots.get(id);
+    }
+
+    /**
+     * Replaces the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void set(int id, Task task) {
+        this.slots.set(id, task);
+    }
+
+    /**
+     * Returns the columns the tasks are held in, or null if they are held as objects.
+     *
+     * @return The columns, or null.
+     */
+    ColumnSlots getColumns() {
+        return (this.slots instanceof ColumnSlots) ? (ColumnSlots) this.slots : null;
+    }
+
+    /**
+     * Returns where the task with the given ID is in the source, or -1 if it did not come from there.
+     *
+     * @param id The ID of the task.
+     * @return The 0-based index of the task in the source.
+     */
+    int originOf(int id) {
+        return (this.origins == null) ? -1 : this.origins[id];
+    }
+
+    /**
+     * Adds a task to the end, and returns its ID.
+     *
+     * @param task The task.
+     * @return The ID of the task.
+     */
+    int add(Task task) {
+        if (isFull()) {
+            renumber(capacityFor(this.size));
+        }
+
+        int id = this.nextId++;
+        this.slots.set(id, task);
+        if (this.origins != null) {
+            this.origins[id] = -1;
+        }
+        this.used.set(id);
+        update(id, 1);
+        this.size++;
+
+        return id;
+    }
+
+    /**
+     * Removes the task with the given ID.
+     *
+     * @param id The ID of the task.
+     */
+    void remove(int id) {
+        assert this.used.get(id) : "No task with that ID";
+
+        this.slots.clear(id);
+        this.used.clear(id);
+        update(id, -1);
+        this.size--;
+    }
+
+    /**
+     * Removes the tasks with the given IDs, all at once.
+     *
+     * @param ids The IDs of the tasks, without repeats.
+     */
+    void removeAll(int[] ids) {
+        for (int id : ids) {
+            assert this.used.get(id) : "No task with that ID";
+
+            this.slots.clear(id);
+            this.used.clear(id);
+            this.size--;
+        }
+
+        // past a point, counting the whole tree again in one pass is quicker than updating it for each ID
+        int capacity = this.tree.length - 1;
+        if ((long) ids.length * (32 - Integer.numberOfLeadingZeros(capacity)) > capacity) {
+            buildTree(capacity);
+        } else {
+            for (int id : ids) {
+                update(id, -1);
+            }
+        }
+    }
+
+    /**
+     * Returns true if IDs will be given out afresh on the next add, which changes the ID of every task.
+     *
+     * @return Whether the next add renumbers the tasks.
+     */
+    boolean isFull() {
+        return this.nextId == this.slots.capacity();
+    }
+
+    private void renumber(int capacity) {
+        // keeps the order, so IDs still ascend down the list
+        int[] ids = ids().toArray();
+        int[] newOrigins = (this.origins == null) ? null : new int[capacity];
+        if (newOrigins != null) {
+            for (int newId = 0; newId < ids.length; newId++) {
+                newOrigins[newId] = this.origins[ids[newId]];
+            }
+        }
+
+        this.slots = this.slots.pack(ids, capacity);
+        this.origins = newOrigins;
+        this.used = new BitSet(capacity);
+        this.used.set(0, this.size);
+        this.nextId = this.size;
+        buildTree(capacity);
+    }
+
+    /**
+     * Returns every task, in order, with tasks yet to be fetched as null.
+     *
+     * @return The tasks.
+     */
+    Task[] toArray() {
+        Task[] inOrder = new Task[this.size];
+        int index = 0;
+        for (int id = firstId(); id >= 0; id = nextId(id)) {
+            inOrder[index++] = this.slots.get(id);
+        }
+
+        return inOrder;
+    }
+
+    /**
+     * Returns a store of the same tasks, held the same way, but sorted. Every task must have been
+     * fetched from the source, as the new store has none. This store should not be used after this.
+     *
+     * @return The sorted store.
+     * @see Task#compareTo(Task)
+     */
+    TaskStore sorted() {
+        int[] sortedIds = this.slots.sort(ids().toArray());
+        return new TaskStore(this.slots.pack(sortedIds, capacityFor(this.size)), this.size);
+    }
+}
@@ -0,0 +1,172 @@
+package cbot.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the tasks whose descriptions contain some text, ignoring case, without reading every description.
+ * Every run of three characters (trigram) in a lowercased description points to the IDs of the tasks
+ * that have it, so only the tasks having every trigram of the search text need to be checked.
+ * The lowercased descriptions are kept too, so searching does not lowercase anything but the search text.
+ */
+class TextIndex {
+    private static final int GRAM_LEN = 3;
+
+    private final HashMap<Long, IdList> postings = new HashMap<>();
+    private final HashMap<Integer, String> lowDescs = new HashMap<>();
+
+    /**
+     * Adds the task with the given ID and description.
+     *
+     * @param id The ID of the task.
+     * @param desc The description of the task.
+     */
+    void add(int id, String desc) {
+        String lowDesc = InternPool.toLower(desc);
+        this.lowDescs.put(id, lowDesc);
+
+        for (int i = 0; i + GRAM_LEN <= lowDesc.length(); i++) {
+            this.postings.computeIfAbsent(gramAt(lowDesc, i), gram -> new IdList()).add(id);
+        }
+    }
+
+    /**
+     * Removes the task with the given ID.
+     *
+     * @param id The ID of the task.
+     */
+    void remove(int id) {
+        String lowDesc = this.lowDescs.remove(id);
+
+        for (int i = 0; i + GRAM_LEN <= lowDesc.length(); i++) {
+            long gram = gramAt(lowDesc, i);
+            IdList ids = this.postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                this.postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of the tasks whose descriptions contain the given text, ignoring case, in ascending order.
+     * Short texts have no trigram, so the given IDs (e.g. every task in list order) are checked one by one.
+     *
+     * @param text The text to search for.
+     * @param allIds Every ID in the list, in ascending order.
+     * @return The IDs of the matching tasks.
+     */
+    ArrayList<Integer> find(String text, IntStream allIds) {
+        String lowText = text.toLowerCase();
+        IntPredicate isMatch = id -> this.lowDescs.get(id).contains(lowText);
+        ArrayList<Integer> found = new ArrayList<>();
+
+        if (lowText.length() < GRAM_LEN) {
+            allIds.filter(isMatch).forEach(found::add);
+            return found;
+        }
+
+        IdList[] lists = new IdList[lowText.length() - GRAM_LEN + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = this.postings.get(gramAt(lowText, i));
+            if (lists[i] == null) {
+                return found;
+            }
+        }
+
+        // the rarest trigram gives the fewest candidates, which the others then narrow down
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.size));
+        IdList rarest = lists[0];
+
+        for (int i = 0; i < rarest.size; i++) {
+            int id = rarest.ids[i];
+            boolean isCandidate = true;
+            for (int j = 1; j < lists.length && isCandidate; j++) {
+                isCandidate = lists[j].contains(id);
+            }
+
+            if (isCandidate && isMatch.test(id)) {
+                found.add(id);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns at most how many tasks {@link #find(String, IntStream)} would check for the given text,
+     * which is the number of tasks with its rarest trigram.
+     *
+     * @param text The text to search for.
+     * @param count The number of tasks in the list.
+     * @return The number of tasks that would be checked.
+     */
+    int estimate(String text, int count) {
+        String lowText = text.toLowerCase();
+        if (lowText.length() < GRAM_LEN) {
+            return count;
+        }
+
+        int fewest = count;
+        for (int i = 0; i + GRAM_LEN <= lowText.length(); i++) {
+            IdList ids = this.postings.get(gramAt(lowText, i));
+            fewest = Math.min(fewest, (ids == null) ? 0 : ids.size);
+        }
+
+        return fewest;
+    }
+
+    private static long gramAt(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+
+    /**
+     * A sorted list of IDs, without duplicates.
+     */
+    private static class IdList {
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        void add(int id) {
+            // IDs are mostly added in ascending order, so check the end first
+            if (this.size > 0 && this.ids[this.size - 1] == id) {
+                return;
+            }
+
+            int index = (this.size == 0 || this.ids[this.size - 1] < id)
+                    ? this.size
+                    : Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index >= 0 && index < this.size) {
+                return;
+            }
+
+            int insertAt = (index < 0) ? -index - 1 : index;
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            System.arraycopy(this.ids, insertAt, this.ids, insertAt + 1, this.size - insertAt);
+            this.ids[insertAt] = id;
+            this.size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index < 0) {
+                return false;
+            }
+
+            System.arraycopy(this.ids, index + 1, this.ids, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Keeps the IDs of the time-based tasks in a list, ordered by their time, so that the tasks
+ * falling in a range of time can be found without looking at the rest.
+ *
+ * @see Task#getTime()
+ */
+class TimeIndex {
+    private final TreeMap<LocalDateTime, ArrayList<Integer>> ids = new TreeMap<>();
+
+    /**
+     * Adds the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void add(int id, Task task) {
+        if (task.hasTime()) {
+            this.ids.computeIfAbsent(task.getTime(), time -> new ArrayList<>()).add(id);
+        }
+    }
+
+    /**
+     * Removes the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @param task The task.
+     */
+    void remove(int id, Task task) {
+        if (!task.hasTime()) {
+            return;
+        }
+
+        ArrayList<Integer> atTime = this.ids.get(task.getTime());
+        atTime.remove(Integer.valueOf(id));
+        if (atTime.isEmpty()) {
+            this.ids.remove(task.getTime());
+        }
+    }
+
+    /**
+     * Returns the IDs of the tasks with times between the given datetimes (inclusive), in ascending order.
+     *
+     * @param from The earliest datetime.
+     * @param to The latest datetime.
+     * @return The IDs of the tasks.
+     */
+    ArrayList<Integer> between(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Integer> found = new ArrayList<>();
+
+        Collection<ArrayList<Integer>> inRange = this.ids.subMap(from, true, to, true).values();
+        for (ArrayList<Integer> atTime : inRange) {
+            found.addAll(atTime);
+        }
+
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * Returns the number of tasks with times between the given datetimes (inclusive).
+     *
+     * @param from The earliest datetime.
+     * @param to The latest datetime.
+     * @return The number of tasks.
+     */
+    int count(LocalDateTime from, LocalDateTime to) {
+        return this.ids.subMap(from, true, to, true).values().stream()
+                .mapToInt(ArrayList::size)
+                .sum();
+    }
+
+    /**
+     * Returns the IDs of the tasks with times after the given datetime, from the earliest time on.
+     * IDs are only looked up as they are iterated over.
+     *
+     * @param time The datetime the tasks must come after.
+     * @return The IDs of the tasks, in order of time.
+     */
+    Iterator<Integer> after(LocalDateTime time) {
+        return this.ids.tailMap(time, false).values().stream()
+                .flatMap(ArrayList::stream)
+                .iterator();
+    }
+}
@@ -0,0 +1,194 @@
+package cbot.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+/**
+ * Reads and writes the {@link SaveFormat#BINARY} save format.
+ * The file starts with a magic number, a version and the task count. Each task is then
+ * a type byte, a done byte, its datetimes as epoch-second longs (due, or start and end),
+ * and its description as length-prefixed UTF-8. Datetimes are kept to the second.
+ * From version 2, each task is followed by the CRC32 checksum of its bytes.
+ */
+class BinaryFormat {
+    private static final int MAGIC = 0x43424f54; // "CBOT"
+    private static final int VERSION = 2;
+    private static final int FIRST_CHECKED_VERSION = 2;
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * Writes the whole TaskList to the given stream.
+     *
+     * @param tl The TaskList to write.
+     * @param os The stream to write to. It is flushed, but not closed.
+     * @throws IOException If the stream cannot be written to.
+     */
+    static void write(TaskList tl, OutputStream os)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, BUFFER));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(tl.getCount());
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        CRC32 crc = new CRC32();
+
+        for (int i = 1; i <= tl.getCount(); i++) {
+            record.reset();
+            writeTask(recordOut, tl.getTask(i));
+
+            crc.reset();
+            crc.update(record.toByteArray());
+            record.writeTo(out);
+            out.writeInt((int) crc.getValue());
+        }
+
+        out.flush();
+    }
+
+    private static void writeTask(DataOutputStream out, Task task)
+            throws IOException {
+        out.writeByte(task.getSymbol().charAt(0));
+        out.writeBoolean(task.getStatus().equals(Task.DONE_TRUE));
+
+        switch (task.getSymbol()) {
+        case Deadline.DEADLINE_SYMBOL:
+            out.writeLong(toEpoch(task.getTime()));
+            break;
+
+        case Event.EVENT_SYMBOL:
+            out.writeLong(toEpoch(task.getTime()));
+            out.writeLong(toEpoch(((Event) task).getEndTime()));
+            break;
+
+        default:
+            // To-Dos have no datetime
+            break;
+        }
+
+        byte[] desc = task.getDesc().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(desc.length);
+        out.write(desc);
+    }
+
+    /**
+     * Reads all the tasks in the given file. An empty file holds no tasks.
+     * Reading stops at the first damaged or missing task, as nothing after it can be trusted, and it and
+     * every task after it are replaced with placeholders, so the tasks read keep their positions.
+     *
+     * @param f The file to read.
+     * @return The tasks, in order, and how many could not be read.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    static LoadResult read(File f)
+            throws FileNotFoundException {
+        LoadResult result = new LoadResult();
+
+        if (f.exists() && f.length() == 0) {
+            return result;
+        }
+
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(f), BUFFER), new CRC32());
+
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(f.getPath() + " is not a Cbot save file");
+            }
+
+            int version = in.readUnsignedByte();
+            if (version > VERSION) {
+                throw new IOException(f.getPath() + " was saved by a newer Cbot (version " + version + ")");
+            }
+
+            int count = in.readInt();
+            result.getTasks().ensureCapacity(count);
+            while (result.getTasks().size() < count && !result.isDamaged()) {
+                try {
+                    checked.getChecksum().reset();
+                    Task task = readTask(in, f.length());
+                    int crc = (int) checked.getChecksum().getValue();
+
+                    if (version >= FIRST_CHECKED_VERSION && in.readInt() != crc) {
+                        throw new IOException("Saved task \"" + task + "\" has the wrong checksum");
+                    }
+                    result.getTasks().add(task);
+                } catch (IOException | RuntimeException e) {
+                    // torn or damaged; everything after this is unreadable
+                    result.addDamaged(count - result.getTasks().size());
+                }
+            }
+
+            while (result.getTasks().size() < count) {
+                result.getTasks().add(LoadResult.damagedTask(result.getTasks().size() + 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result;
+    }
+
+    private static Task readTask(DataInputStream in, long maxDescLen)
+            throws IOException {
+        char type = (char) in.readUnsignedByte();
+        boolean isDone = in.readBoolean();
+
+        switch (String.valueOf(type)) {
+        case Task.TODO_SYMBOL:
+            return new Task(readDesc(in, maxDescLen), isDone);
+
+        case Deadline.DEADLINE_SYMBOL:
+            LocalDateTime due = fromEpoch(in.readLong());
+            return new Deadline(readDesc(in, maxDescLen), due, isDone);
+
+        case Event.EVENT_SYMBOL:
+            LocalDateTime fromTime = fromEpoch(in.readLong());
+            LocalDateTime toTime = fromEpoch(in.readLong());
+            return new Event(readDesc(in, maxDescLen), fromTime, toTime, isDone);
+
+        default:
+            throw new IOException("Unknown task type symbol: " + type);
+        }
+    }
+
+    private static String readDesc(DataInputStream in, long maxDescLen)
+            throws IOException {
+        int descLen = in.readInt();
+        if (descLen < 0 || descLen > maxDescLen) {
+            throw new IOException("Saved description length " + descLen + " is impossible");
+        }
+
+        byte[] desc = new byte[descLen];
+        in.readFully(desc);
+        return new String(desc, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpoch(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpoch(long epoch) {
+        return LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC);
+    }
+}
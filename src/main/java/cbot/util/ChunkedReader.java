@@ -0,0 +1,125 @@
+package cbot.util;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a text save file in parallel. The file is cut into chunks at line breaks, the chunks are
+ * parsed at the same time on a fork-join pool, and their tasks are put back together in order.
+ */
+class ChunkedReader {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int SEEK_BUFFER = 1 << 12;
+
+    /**
+     * Reads every task in the given text save file, using the given pool.
+     * Damaged lines are replaced with placeholders, as when reading line by line.
+     *
+     * @param f The text save file.
+     * @param pool The pool to parse chunks on.
+     * @param minChunkSize The smallest chunk worth parsing on its own, in bytes.
+     * @return The tasks, in order, and how many lines were damaged.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    static LoadResult read(File f, ForkJoinPool pool, int minChunkSize)
+            throws FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = findBounds(channel, pool.getParallelism(), minChunkSize);
+
+            ArrayList<ForkJoinTask<LoadResult>> parts = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                parts.add(pool.submit(() -> parseChunk(channel, start, end)));
+            }
+
+            LoadResult result = new LoadResult();
+            for (ForkJoinTask<LoadResult> part : parts) {
+                result.addAll(part.join());
+            }
+
+            return result.finish();
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(f.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long[] findBounds(FileChannel channel, int threads, int minChunkSize)
+            throws IOException {
+        long size = channel.size();
+        long chunkCount = Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, size / minChunkSize));
+        chunkCount = Math.max(chunkCount, size / MAX_CHUNK_SIZE + 1);
+
+        ArrayList<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        for (long i = 1; i < chunkCount; i++) {
+            long bound = nextLineStart(channel, size * i / chunkCount);
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long from)
+            throws IOException {
+        // the line break just before from counts, so a chunk never starts mid-line
+        ByteBuffer buffer = ByteBuffer.allocate(SEEK_BUFFER);
+        long position = Math.max(0, from - 1);
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() == '\n') {
+                    return position + buffer.position();
+                }
+            }
+            position += buffer.limit();
+            buffer.clear();
+        }
+
+        return position;
+    }
+
+    private static LoadResult parseChunk(FileChannel channel, long start, long end) {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) > 0) {
+                // keep reading until the chunk is complete
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String text = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        LoadResult result = new LoadResult();
+        int lineStart = 0;
+
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            lineEnd = (lineEnd < 0) ? text.length() : lineEnd;
+            int recordEnd = (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') ? lineEnd - 1 : lineEnd;
+
+            result.addLine(text.substring(lineStart, recordEnd));
+            lineStart = lineEnd + 1;
+        }
+
+        return result;
+    }
+}
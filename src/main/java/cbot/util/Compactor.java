@@ -0,0 +1,179 @@
+package cbot.util;
+
+/**
+ * Folds the journal back into the save file from a background thread, once the journal
+ * has grown past a number of records or bytes. Compaction works from the files alone, so
+ * commands carry on while it runs. Keeps count of how long compactions take.
+ *
+ * @see FileStuff#startCompactor(int, long)
+ */
+public class Compactor {
+    private final FileStuff fs;
+    private final int maxRecords;
+    private final long maxBytes;
+
+    private final Object lock = new Object();
+    private final Thread worker;
+    private boolean isDue = false;
+    private boolean isRunning = false;
+    private boolean isClosed = false;
+    private int compactionCount = 0;
+    private long lastMillis = 0;
+    private long totalMillis = 0;
+
+    /**
+     * Constructs a Compactor for the given save file, and starts its thread.
+     *
+     * @param fs The save file to compact.
+     * @param maxRecords How many journal records to allow before compacting.
+     * @param maxBytes How large the journal may grow before compacting.
+     */
+    Compactor(FileStuff fs, int maxRecords, long maxBytes) {
+        this.fs = fs;
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+
+        this.worker = new Thread(this::runWorker, "cbot-compactor");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a compaction if the journal has grown past either threshold. Does not wait for it.
+     *
+     * @param records The number of records in the journal.
+     * @param bytes The size of the journal.
+     */
+    void check(int records, long bytes) {
+        if (records < this.maxRecords && bytes < this.maxBytes) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            this.isDue = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until no compaction is scheduled or running.
+     */
+    public void awaitIdle() {
+        synchronized (this.lock) {
+            try {
+                while (this.isDue || this.isRunning) {
+                    this.lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Lets any running compaction finish, then stops the thread. Scheduled compactions are dropped.
+     */
+    void close() {
+        synchronized (this.lock) {
+            this.isClosed = true;
+            this.isDue = false;
+            this.lock.notifyAll();
+        }
+
+        try {
+            this.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of compactions done so far.
+     *
+     * @return The number of compactions.
+     */
+    public int getCompactionCount() {
+        synchronized (this.lock) {
+            return this.compactionCount;
+        }
+    }
+
+    /**
+     * Returns how long the last compaction took, in milliseconds.
+     *
+     * @return The duration of the last compaction.
+     */
+    public long getLastMillis() {
+        synchronized (this.lock) {
+            return this.lastMillis;
+        }
+    }
+
+    /**
+     * Returns how long all compactions so far took together, in milliseconds.
+     *
+     * @return The total duration of compactions.
+     */
+    public long getTotalMillis() {
+        synchronized (this.lock) {
+            return this.totalMillis;
+        }
+    }
+
+    /**
+     * Returns the number of records in the journal that are not yet in the save file.
+     *
+     * @return The length of the journal, in records.
+     * @see FileStuff#getJournalRecords()
+     */
+    public int getJournalRecords() {
+        return this.fs.getJournalRecords();
+    }
+
+    /**
+     * Returns the size of the journal that is not yet in the save file.
+     *
+     * @return The length of the journal, in bytes.
+     * @see FileStuff#getJournalBytes()
+     */
+    public long getJournalBytes() {
+        return this.fs.getJournalBytes();
+    }
+
+    private void runWorker() {
+        while (awaitDue()) {
+            long start = System.nanoTime();
+            this.fs.compactJournal();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            synchronized (this.lock) {
+                this.compactionCount++;
+                this.lastMillis = millis;
+                this.totalMillis += millis;
+                this.isRunning = false;
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private boolean awaitDue() {
+        synchronized (this.lock) {
+            try {
+                while (!this.isDue && !this.isClosed) {
+                    this.lock.wait();
+                }
+            } catch (InterruptedException e) {
+                return false;
+            }
+
+            if (this.isClosed) {
+                this.lock.notifyAll();
+                return false;
+            }
+
+            this.isDue = false;
+            this.isRunning = true;
+            return true;
+        }
+    }
+}
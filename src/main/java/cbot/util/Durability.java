@@ -0,0 +1,31 @@
+package cbot.util;
+
+/**
+ * How soon a change must reach the save file, as handled by {@link Saver}.
+ */
+public enum Durability {
+    /** Every change is saved before the command returns. */
+    SYNC,
+
+    /** Changes are saved in the background, in one write per burst (after a delay, or enough changes). */
+    GROUP,
+
+    /** Changes are saved in the background as soon as possible. */
+    ASYNC;
+
+    /**
+     * Returns the mode with the given name, ignoring case. Unknown or missing names give SYNC.
+     *
+     * @param name The name of the mode, e.g. "group".
+     * @return The corresponding mode.
+     */
+    public static Durability fromName(String name) {
+        for (Durability mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+
+        return SYNC;
+    }
+}
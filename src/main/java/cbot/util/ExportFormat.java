@@ -0,0 +1,336 @@
+package cbot.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+/**
+ * A layout for moving tasks in and out of Cbot, for use by other programs.
+ * Tasks are written and read one at a time, so a list of any length takes the same memory to move.
+ * Every layout holds the same fields: the task type symbol, whether it is done, its description,
+ * and its time and end time (in ISO form, e.g. "2023-03-01T10:00"), if any.
+ */
+public enum ExportFormat {
+    /** Comma-separated values, with a header line, quoted as spreadsheets expect. */
+    CSV(".csv") {
+        private static final String HEADER = "type,done,description,time,end";
+
+        @Override
+        void writeHeader(Writer w)
+                throws IOException {
+            w.write(HEADER + "\n");
+        }
+
+        @Override
+        void writeTask(Writer w, Task task)
+                throws IOException {
+            w.write(task.getSymbol() + "," + isDone(task) + "," + quote(task.getDesc()) + ","
+                    + timeOf(task) + "," + endOf(task) + "\n");
+        }
+
+        @Override
+        Map<String, String> readFields(BufferedReader br)
+                throws IOException {
+            String line = br.readLine();
+            if (line != null && line.equalsIgnoreCase(HEADER)) {
+                line = br.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+
+            String[] names = HEADER.split(",");
+            Map<String, String> fields = new HashMap<>();
+            StringBuilder field = new StringBuilder();
+            boolean isQuoted = false;
+            int i = 0;
+
+            while (true) {
+                if (i == line.length()) {
+                    if (!isQuoted) {
+                        break;
+                    }
+                    // a quoted field can hold a line break
+                    String next = br.readLine();
+                    if (next == null) {
+                        throw new IllegalArgumentException("Unclosed quote");
+                    }
+                    field.append('\n');
+                    line = next;
+                    i = 0;
+                    continue;
+                }
+
+                char c = line.charAt(i++);
+                if (isQuoted && c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if (c == ',' && !isQuoted) {
+                    putField(fields, names, field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            putField(fields, names, field.toString());
+
+            return fields;
+        }
+
+        private String quote(String text) {
+            boolean needQuotes = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+
+            return needQuotes
+                    ? "\"" + text.replace("\"", "\"\"") + "\""
+                    : text;
+        }
+
+        private void putField(Map<String, String> fields, String[] names, String value) {
+            if (fields.size() >= names.length) {
+                throw new IllegalArgumentException("Too many fields");
+            }
+            fields.put(names[fields.size()], value);
+        }
+    },
+
+    /** One JSON object per line, e.g. {"type":"T","done":false,"description":"read"}. */
+    JSON_LINES(".jsonl") {
+        @Override
+        void writeHeader(Writer w) {
+            // every line stands alone
+        }
+
+        @Override
+        void writeTask(Writer w, Task task)
+                throws IOException {
+            StringBuilder sb = new StringBuilder("{\"type\":\"").append(task.getSymbol())
+                    .append("\",\"done\":").append(isDone(task))
+                    .append(",\"description\":");
+            appendString(sb, task.getDesc());
+
+            if (task.hasTime()) {
+                sb.append(",\"time\":\"").append(timeOf(task)).append('"');
+            }
+            if (task instanceof Event) {
+                sb.append(",\"end\":\"").append(endOf(task)).append('"');
+            }
+
+            w.write(sb.append("}\n").toString());
+        }
+
+        @Override
+        Map<String, String> readFields(BufferedReader br)
+                throws IOException {
+            String line = br.readLine();
+            while (line != null && line.isBlank()) {
+                line = br.readLine();
+            }
+
+            return (line == null) ? null : new JsonObjectReader(line).read();
+        }
+
+        private void appendString(StringBuilder sb, String text) {
+            sb.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    },
+
+    /** The layout of a text save file, which Cbot can load again as it is (see {@link FileStuff}). */
+    TEXT(".txt") {
+        @Override
+        void writeHeader(Writer w) {
+            // a save file has no header
+        }
+
+        @Override
+        void writeTask(Writer w, Task task)
+                throws IOException {
+            w.write(FileStuff.withCheck(task.makeFileFriendly()));
+            w.write("\n");
+        }
+
+        @Override
+        Map<String, String> readFields(BufferedReader br)
+                throws IOException {
+            String line = br.readLine();
+            while (line != null && line.isBlank()) {
+                line = br.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+
+            // lines are read one at a time, so lines without a checksum are taken as they are
+            Task task = FileStuff.restoreTask(FileStuff.checkedRecord(line, false));
+            Map<String, String> fields = new HashMap<>();
+            fields.put("type", task.getSymbol());
+            fields.put("done", String.valueOf(isDone(task)));
+            fields.put("description", task.getDesc());
+            fields.put("time", timeOf(task));
+            fields.put("end", endOf(task));
+
+            return fields;
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    abstract void writeHeader(Writer w) throws IOException;
+
+    abstract void writeTask(Writer w, Task task) throws IOException;
+
+    /**
+     * Reads the fields of the next task, by name. Returns null if there are no more tasks.
+     * Throws an IllegalArgumentException if the task is malformed; the next call reads on from after it.
+     */
+    abstract Map<String, String> readFields(BufferedReader br) throws IOException;
+
+    /**
+     * Returns the format that the given path's extension stands for, ignoring case.
+     * Returns null if the extension is not one of them.
+     *
+     * @param path The path of the file, e.g. "tasks.csv".
+     * @return The corresponding format, or null.
+     */
+    public static ExportFormat fromPath(String path) {
+        String lowPath = path.toLowerCase();
+        for (ExportFormat format : values()) {
+            if (lowPath.endsWith(format.extension)) {
+                return format;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes every task in the TaskList, in order, to the given writer. The writer is flushed, but not closed.
+     *
+     * @param tl The TaskList to write.
+     * @param w Where to write the tasks.
+     * @return The number of tasks written.
+     * @throws IOException If the tasks cannot be written.
+     */
+    public int write(TaskList tl, Writer w)
+            throws IOException {
+        writeHeader(w);
+        for (int i = 1; i <= tl.getCount(); i++) {
+            writeTask(w, tl.getTask(i));
+        }
+
+        w.flush();
+        return tl.getCount();
+    }
+
+    /**
+     * Reads tasks from the given reader, one at a time, and adds each to the end of the TaskList.
+     * Tasks that cannot be read are skipped.
+     *
+     * @param br Where to read the tasks from.
+     * @param tl The TaskList to add the tasks to.
+     * @return The number of tasks that had to be skipped.
+     * @throws IOException If the reader cannot be read.
+     */
+    public int read(BufferedReader br, TaskList tl)
+            throws IOException {
+        int skipCount = 0;
+
+        while (true) {
+            Task task;
+            try {
+                Map<String, String> fields = readFields(br);
+                if (fields == null) {
+                    return skipCount;
+                }
+                task = toTask(fields);
+            } catch (RuntimeException e) {
+                skipCount++;
+                continue;
+            }
+
+            tl.addTask(task);
+        }
+    }
+
+    private static Task toTask(Map<String, String> fields) {
+        String type = fields.getOrDefault("type", "").trim().toUpperCase();
+        String desc = fields.getOrDefault("description", "");
+        boolean isDone = Boolean.parseBoolean(fields.getOrDefault("done", "false").trim());
+
+        if (desc.isBlank()) {
+            throw new IllegalArgumentException("Missing description");
+        } else if (desc.contains(Task.SEP) || desc.indexOf('\n') >= 0 || desc.indexOf('\r') >= 0) {
+            // these would break the save file, just as they are refused when typed in
+            throw new IllegalArgumentException("Description cannot be saved");
+        }
+
+        switch (type) {
+        case Task.TODO_SYMBOL:
+            return new Task(desc, isDone);
+        case Deadline.DEADLINE_SYMBOL:
+            return new Deadline(desc, LocalDateTime.parse(fields.get("time").trim()), isDone);
+        case Event.EVENT_SYMBOL:
+            LocalDateTime start = LocalDateTime.parse(fields.get("time").trim());
+            LocalDateTime end = LocalDateTime.parse(fields.get("end").trim());
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("Event ends before it starts");
+            }
+            return new Event(desc, start, end, isDone);
+        default:
+            throw new IllegalArgumentException("Unknown task type \"" + type + "\"");
+        }
+    }
+
+    private static boolean isDone(Task task) {
+        return task.getStatus().equals(Task.DONE_TRUE);
+    }
+
+    private static String timeOf(Task task) {
+        return task.hasTime() ? task.getTime().toString() : "";
+    }
+
+    private static String endOf(Task task) {
+        return (task instanceof Event) ? ((Event) task).getEndTime().toString() : "";
+    }
+}
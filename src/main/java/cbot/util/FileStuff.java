@@ -1,32 +1,158 @@
 package cbot.util;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
-import java.time.LocalDateTime;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
 
 import cbot.task.Deadline;
 import cbot.task.Event;
 import cbot.task.Task;
+import cbot.task.TaskLayout;
 import cbot.task.TaskList;
 
 /**
  * Manages save-file reading and writing.
+ * The save file is text, binary or sharded (see {@link SaveFormat}). A binary or sharded save file sits
+ * next to the text one, and is made from it the first time it is loaded. A sharded save file is loaded
+ * lazily, a shard at a time, so only the shards in use are held in memory (see {@link #setShardBudget(int)}).
+ * A text save file can also be loaded lazily, reading tasks straight from the file (see {@link #setLazy(boolean)}).
+ * Loaded tasks can be held in columns instead of as objects (see {@link #setLayout(TaskLayout)}).
+ * In journaled mode, changes are appended to a journal next to the save file instead of
+ * rewriting the whole save file, and the journal is replayed on top of the save file when loading.
+ * <p>
+ * Save files are written to a temporary file first, then moved over the old one, so a crash never
+ * leaves a half-written save file behind. Every record also carries a checksum. When loading,
+ * damaged tasks are replaced with placeholders (so the journal still finds the others where it expects),
+ * damaged journal records are skipped, the damaged file is kept aside (as ".corrupt"), and a note is left
+ * for {@link #getRecoveryNote()}.
+ * <p>
+ * A new save file is first moved into place as ".next". Its existence means it already holds
+ * everything in the journal that was set aside (as ".journal.old") before it was written, so that journal
+ * can be dropped and ".next" moved over the save file, even by the next load if Cbot stops halfway.
+ * A journal is therefore never replayed on top of a save file that already contains it.
  */
 public class FileStuff {
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final String TEMP_SUFFIX = ".tmp";
+    public static final String CORRUPT_SUFFIX = ".corrupt";
+    public static final String NEXT_SUFFIX = ".next";
+    public static final String FOLDING_SUFFIX = ".old";
+    static final String CHECK_PREFIX = Task.SEP + "#";
+    static final int CHECK_LEN = CHECK_PREFIX.length() + 8;
+    // the first record of every journal, so that even its first change is known to need a checksum
+    private static final String JOURNAL_HEADER = "JOURNAL";
+    private static final int READ_BUFFER = 1 << 16;
+    private static final int DEFAULT_SHARD_BUDGET = 100_000;
+    private static final String JOURNAL_NOTE = "Skipped %d damaged record(s) in %s (kept as %s)";
+    private static final String SNAPSHOT_NOTE = "Replaced %d damaged task(s) in %s with placeholders (kept as %s)";
+    private static final String COMPACT_NOTE = "Found %d damaged record(s) in %s while compacting (copied to %s)";
+
     private final File file;
+    private final File textFile;
+    private final File journal;
+    private final File nextFile;
+    private final File oldJournal;
+    private final File shardDir;
+    private final SaveFormat format;
+    private final boolean isJournaled;
+    private int shardBudget = DEFAULT_SHARD_BUDGET;
+    private boolean isLazy = false;
+    private TaskLayout layout = TaskLayout.OBJECTS;
+    private final ArrayList<OffsetSource> lazySources = new ArrayList<>();
+
+    private final Object noteLock = new Object();
+    private String recoveryNote = null;
+    // the source of the last lazy load, whose damage only turns up as its pages are read
+    private OffsetSource lazySource = null;
+    private File lazyFile = null;
+    private String lazyNote = null;
+    // set when the files turn out to be damaged after loading, so the live list is written out whole instead
+    private volatile boolean isSnapshotDue = false;
+
+    private final Object snapshotLock = new Object();
+    private final Object journalLock = new Object();
+    private int journalRecords = 0;
+    private long journalBytes = 0;
+    private Compactor compactor = null;
 
     /**
-     * Constructs a new instance to manage the save file at the given path.
+     * Constructs a new instance to manage the text save file at the given path.
+     * The optional flag turns on journaled mode, and defaults to false.
      *
      * @param path Directory location (relative) of the save file.
+     * @param isJournaled (Optional) Whether changes are appended to a journal instead.
+     */
+    public FileStuff(String path, boolean ... isJournaled) {
+        this(path, SaveFormat.TEXT, isJournaled);
+    }
+
+    /**
+     * Constructs a new instance to manage the save file at the given path, in the given format.
+     * For BINARY and SHARDED, the path is that of the text save file, which the save file is named after.
+     * The optional flag turns on journaled mode, and defaults to false.
+     *
+     * @param path Directory location (relative) of the text save file.
+     * @param format The format of the save file.
+     * @param isJournaled (Optional) Whether changes are appended to a journal instead.
+     * @see SaveFormat#toPath(String)
      */
-    public FileStuff(String path) {
-        this.file = new File(path);
+    public FileStuff(String path, SaveFormat format, boolean ... isJournaled) {
+        this.textFile = new File(path);
+        this.file = (format == SaveFormat.TEXT) ? this.textFile : new File(format.toPath(path));
+        this.journal = new File(this.file.getPath() + JOURNAL_SUFFIX);
+        this.nextFile = new File(this.file.getPath() + NEXT_SUFFIX);
+        this.oldJournal = new File(this.journal.getPath() + FOLDING_SUFFIX);
+        this.shardDir = ShardFormat.getShardDir(this.file);
+        this.format = format;
+        this.isJournaled = (isJournaled.length != 0) ? isJournaled[0] : false;
+    }
+
+    /**
+     * Sets how many tasks a sharded save file may keep loaded at once, give or take a shard.
+     * Only affects loads after this.
+     *
+     * @param shardBudget The number of tasks.
+     */
+    public void setShardBudget(int shardBudget) {
+        assert shardBudget > 0 : "Shard budget must be positive";
+        this.shardBudget = shardBudget;
+    }
+
+    /**
+     * Sets whether a text save file is loaded lazily. If so, loading only indexes where each task is
+     * in the file, and tasks are read from it as they are needed. Only affects loads after this.
+     *
+     * @param isLazy Whether to load lazily.
+     */
+    public void setLazy(boolean isLazy) {
+        this.isLazy = isLazy;
+    }
+
+    /**
+     * Sets how loaded tasks are held in memory. Only affects loads after this.
+     *
+     * @param layout How tasks are held.
+     */
+    public void setLayout(TaskLayout layout) {
+        this.layout = layout;
     }
 
     /**
@@ -52,26 +178,333 @@ public class FileStuff {
 
     /**
      * Writes the current state of the TaskList to the save file.
+     * In journaled mode, only the changes since the last save are appended to the journal,
+     * unless the save files have turned out to be damaged since loading; then the whole list is written.
      *
      * @param tl The TaskList to save.
      * @see TaskList
+     * @see TaskList#takeChanges()
      */
     public void saveFile(TaskList tl) {
         if (!fileExists()) {
             makeFile();
         }
 
+        synchronized (this.noteLock) {
+            checkLazyDamage();
+        }
+
+        if (this.isJournaled && !this.isSnapshotDue) {
+            appendJournal(tl.takeChanges());
+            return;
+        }
+
+        tl.takeChanges();
+
+        writeSnapshot(tl);
+    }
+
+    /**
+     * Writes the whole TaskList to the save file, and clears the journal.
+     * Loading is then as fast as it would be without a journal.
+     *
+     * @param tl The TaskList to save.
+     */
+    public void compact(TaskList tl) {
+        if (!fileExists()) {
+            makeFile();
+        }
+
+        tl.takeChanges();
+        writeSnapshot(tl);
+    }
+
+    /**
+     * Writes the whole TaskList as a text save file at the given path, whatever the current format.
+     * The EXPORT command does the same for paths ending in ".txt".
+     *
+     * @param tl The TaskList to export.
+     * @param path Directory location (relative) of the text file.
+     */
+    public void exportText(TaskList tl, String path) {
         try {
-            FileWriter fw = new FileWriter(this.file);
-            fw.write(tl.makeFileFriendly());
-            fw.close();
+            writeAtomically(tl, new File(path), SaveFormat.TEXT, null);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Reads and loads the save file as a list of tasks.
+     * Starts folding the journal into the save file in the background, whenever it grows past
+     * either of the given sizes.
+     *
+     * @param maxRecords How many journal records to allow before compacting.
+     * @param maxBytes How large the journal may grow before compacting.
+     * @return The Compactor, which keeps track of how long compactions take.
+     */
+    public Compactor startCompactor(int maxRecords, long maxBytes) {
+        assert this.compactor == null : "Compactor has been started already";
+
+        this.compactor = new Compactor(this, maxRecords, maxBytes);
+        this.compactor.check(getJournalRecords(), getJournalBytes());
+        return this.compactor;
+    }
+
+    /**
+     * Stops the background compactor, if any, after letting a running compaction finish,
+     * and closes the save files that lazily loaded lists read from.
+     */
+    public void close() {
+        if (this.compactor != null) {
+            this.compactor.close();
+        }
+
+        for (OffsetSource source : this.lazySources) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.lazySources.clear();
+    }
+
+    /**
+     * Returns the number of records in the journal that are not yet in the save file.
+     *
+     * @return The length of the journal, in records.
+     */
+    public int getJournalRecords() {
+        synchronized (this.journalLock) {
+            return this.journalRecords;
+        }
+    }
+
+    /**
+     * Returns the size of the journal that is not yet in the save file.
+     *
+     * @return The length of the journal, in bytes.
+     */
+    public long getJournalBytes() {
+        synchronized (this.journalLock) {
+            return this.journalBytes;
+        }
+    }
+
+    private void writeSnapshot(TaskList tl) {
+        synchronized (this.snapshotLock) {
+            try {
+                setJournalAside();
+                writeAtomically(tl, this.nextFile, this.format, this.shardDir);
+                finishSnapshot(this.file);
+                this.isSnapshotDue = false;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into the save file, reading only the files. The live TaskList is not touched,
+     * and changes can still be appended to the journal meanwhile.
+     * If the save file or journal turn out to be damaged, a copy of each is kept aside (as ".corrupt"),
+     * and the next save writes out the live TaskList whole instead of appending to the journal.
+     */
+    void compactJournal() {
+        synchronized (this.snapshotLock) {
+            try {
+                setJournalAside();
+
+                LoadResult result = this.file.exists()
+                        ? readSnapshot(this.file, this.format)
+                        : new LoadResult();
+                TaskList tl = new TaskList(result.getTasks());
+                LoadResult replayResult = replayJournal(tl, this.oldJournal, false);
+
+                if (result.isDamaged() || replayResult.isDamaged()) {
+                    // the live list still has every task, so the files are left as they are until it is saved
+                    copyDamage(this.file, result);
+                    copyDamage(this.oldJournal, replayResult);
+                    this.isSnapshotDue = true;
+                    return;
+                }
+
+                writeAtomically(tl, this.nextFile, this.format, this.shardDir);
+                finishSnapshot(this.file);
+            } catch (IOException | UncheckedIOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void setJournalAside()
+            throws IOException {
+        synchronized (this.journalLock) {
+            if (this.journal.exists() && this.oldJournal.exists()) {
+                // left over from an unfinished compaction, so fold both
+                Files.write(this.oldJournal.toPath(), Files.readAllBytes(this.journal.toPath()),
+                        StandardOpenOption.APPEND);
+                this.journal.delete();
+            } else if (this.journal.exists()) {
+                moveAtomically(this.journal, this.oldJournal);
+            }
+
+            this.journalRecords = 0;
+            this.journalBytes = 0;
+        }
+    }
+
+    private static void finishSnapshot(File f)
+            throws IOException {
+        File next = new File(f.getPath() + NEXT_SUFFIX);
+        if (!next.exists()) {
+            return;
+        }
+
+        new File(f.getPath() + JOURNAL_SUFFIX + FOLDING_SUFFIX).delete();
+        moveAtomically(next, f);
+    }
+
+    private static void writeAtomically(TaskList tl, File f, SaveFormat format, File shardDir)
+            throws IOException {
+        File temp = new File(f.getPath() + TEMP_SUFFIX);
+
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            if (format == SaveFormat.BINARY) {
+                BinaryFormat.write(tl, fos);
+            } else if (format == SaveFormat.SHARDED) {
+                ShardFormat.write(tl, fos, shardDir);
+            } else {
+                writeText(tl, fos);
+            }
+
+            fos.getFD().sync();
+        }
+
+        moveAtomically(temp, f);
+    }
+
+    private static void moveAtomically(File from, File to)
+            throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeText(TaskList tl, OutputStream os)
+            throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), READ_BUFFER);
+        ExportFormat.TEXT.write(tl, w);
+    }
+
+    static String withCheck(String record) {
+        return record + CHECK_PREFIX + checksum(record);
+    }
+
+    private static String checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        String hex = Long.toHexString(crc.getValue());
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * Returns true if the given line ends with a checksum.
+     *
+     * @param line The line of a save file or journal.
+     * @return Whether the line has a checksum.
+     */
+    static boolean hasCheck(String line) {
+        int checkStart = line.length() - CHECK_LEN;
+        return checkStart >= 0 && line.startsWith(CHECK_PREFIX, checkStart);
+    }
+
+    /**
+     * Returns the record in the given line, without its checksum.
+     * A line without a checksum is taken as it is only if the file it is from has no checksums at all,
+     * as it was saved before checksums were added. In any other file, it has lost its checksum (e.g. by
+     * being torn) and is damaged.
+     *
+     * @param line The line of a save file or journal.
+     * @param isChecked Whether the file the line is from has checksums.
+     * @return The record.
+     * @throws UncheckedIOException If the line is damaged.
+     */
+    static String checkedRecord(String line, boolean isChecked) {
+        if (!hasCheck(line)) {
+            if (isChecked) {
+                throw badRecord(line, "has no checksum");
+            }
+            return line;
+        }
+
+        int checkStart = line.length() - CHECK_LEN;
+        String record = line.substring(0, checkStart);
+        if (!line.endsWith(checksum(record))) {
+            throw badRecord(line, "has the wrong checksum");
+        }
+
+        return record;
+    }
+
+    private static UncheckedIOException badRecord(String record, String problem) {
+        return new UncheckedIOException(new IOException("Saved record \"" + record + "\" " + problem));
+    }
+
+    /**
+     * Returns a description of the damage found in the save files since the last load, if any.
+     * Besides what the load itself found, this covers damage found later on, in the pages of a lazily
+     * loaded save file as they are read, or by compaction.
+     * Returns null if nothing was damaged.
+     *
+     * @return What was recovered, or null.
+     */
+    public String getRecoveryNote() {
+        synchronized (this.noteLock) {
+            checkLazyDamage();
+            if (this.lazyNote == null) {
+                return this.recoveryNote;
+            }
+
+            return (this.recoveryNote == null)
+                    ? this.lazyNote
+                    : this.recoveryNote + "\n" + this.lazyNote;
+        }
+    }
+
+    private void addNote(String note) {
+        synchronized (this.noteLock) {
+            this.recoveryNote = (this.recoveryNote == null) ? note : this.recoveryNote + "\n" + note;
+        }
+    }
+
+    private void checkLazyDamage() {
+        int damagedCount = (this.lazySource == null) ? 0 : this.lazySource.getDamagedCount();
+        if (damagedCount == 0) {
+            return;
+        }
+
+        File corrupt = new File(this.lazyFile.getPath() + CORRUPT_SUFFIX);
+        if (this.lazyNote == null) {
+            // the file may have been saved over since, but the source still reads the one it was loaded from
+            try {
+                this.lazySource.copyTo(corrupt);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            this.isSnapshotDue = true;
+        }
+
+        this.lazyNote = String.format(SNAPSHOT_NOTE, damagedCount, this.lazyFile.getName(), corrupt.getName());
+    }
+
+    /**
+     * Reads and loads the save file as a list of tasks. Any journal is replayed on top of it.
+     * In journaled mode, the list then starts tracking its changes.
+     * If a binary save file is wanted but only the text one exists, the text one is loaded
+     * and written out in binary, once.
      *
      * @return The loaded list of tasks.
      * @throws FileNotFoundException If the save file does not exist in the expected location.
@@ -79,42 +512,346 @@ public class FileStuff {
      */
     public TaskList loadFile()
             throws FileNotFoundException {
-        Scanner s = new Scanner(this.file);
-        ArrayList<Task> tdl = new ArrayList<>();
+        boolean needMigrate = (this.format != SaveFormat.TEXT && !fileExists() && this.textFile.exists());
+        synchronized (this.noteLock) {
+            this.recoveryNote = null;
+            this.lazySource = null;
+            this.lazyNote = null;
+        }
+
+        TaskList tl = needMigrate
+                ? loadFrom(this.textFile, SaveFormat.TEXT)
+                : loadFrom(this.file, this.format);
+        boolean isDamaged;
+        synchronized (this.noteLock) {
+            isDamaged = (this.recoveryNote != null);
+        }
+
+        if (needMigrate || isDamaged) {
+            writeSnapshot(tl);
+            new File(this.textFile.getPath() + JOURNAL_SUFFIX).delete();
+            new File(this.textFile.getPath() + JOURNAL_SUFFIX + FOLDING_SUFFIX).delete();
+        }
 
-        while (s.hasNext()) {
-            String taskSave = s.nextLine();
-            tdl.add(restoreTask(taskSave));
+        if (this.isJournaled) {
+            tl.trackChanges();
         }
 
-        return new TaskList(tdl);
+        return tl;
     }
 
-    private Task restoreTask(String taskSave) {
-        String[] splitSave = taskSave.split(Task.SEP);
-        // type SEP done SEP desc SEP due/from SEP to
+    private TaskList loadFrom(File f, SaveFormat format)
+            throws FileNotFoundException {
+        synchronized (this.snapshotLock) {
+            try {
+                finishSnapshot(f);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            TaskList tl;
+            if (format == SaveFormat.SHARDED) {
+                // nothing can still be reading older shards this early
+                ShardFormat.clean(f);
+                tl = new TaskList(ShardFormat.open(f, this.shardBudget), this.layout);
+            } else if (format == SaveFormat.TEXT && this.isLazy) {
+                // a list loaded earlier may still be reading its own source, so it is left open
+                OffsetSource source = OffsetSource.open(f);
+                this.lazySources.add(source);
+                synchronized (this.noteLock) {
+                    this.lazySource = source;
+                    this.lazyFile = f;
+                }
+                tl = new TaskList(source, this.layout);
+            } else {
+                LoadResult result = readSnapshot(f, format);
+                checkDamage(f, result, SNAPSHOT_NOTE);
+                tl = new TaskList(result.getTasks(), this.layout);
+            }
+
+            // the journal set aside comes first; if it is damaged, the newer journal cannot be trusted either
+            File oldJournalFile = new File(f.getPath() + JOURNAL_SUFFIX + FOLDING_SUFFIX);
+            File journalFile = new File(f.getPath() + JOURNAL_SUFFIX);
+            LoadResult oldReplay = replayJournal(tl, oldJournalFile, false);
+            LoadResult replay = replayJournal(tl, journalFile, oldReplay.isDamaged());
+            checkDamage(oldJournalFile, oldReplay, JOURNAL_NOTE);
+            checkDamage(journalFile, replay, JOURNAL_NOTE);
 
-        String taskError = "Saved task \"" + taskSave + "\" ";
-        assert splitSave.length >= 3 : taskError + "is formatted incorrectly";
+            synchronized (this.journalLock) {
+                this.journalRecords = oldReplay.getRecordCount() + replay.getRecordCount();
+                this.journalBytes = oldJournalFile.length() + journalFile.length();
+            }
+
+            return tl;
+        }
+    }
+
+    private static LoadResult readSnapshot(File f, SaveFormat format)
+            throws FileNotFoundException {
+        switch (format) {
+        case BINARY:
+            return BinaryFormat.read(f);
+        case SHARDED:
+            return ShardFormat.readAll(f);
+        default:
+            return readText(f);
+        }
+    }
+
+    private void checkDamage(File f, LoadResult result, String noteFormat) {
+        if (!result.isDamaged()) {
+            return;
+        }
+
+        File corrupt = new File(f.getPath() + CORRUPT_SUFFIX);
+        corrupt.delete();
+        f.renameTo(corrupt);
+
+        addNote(String.format(noteFormat, result.getDamagedCount(), f.getName(), corrupt.getName()));
+    }
+
+    private void copyDamage(File f, LoadResult result) {
+        if (!result.isDamaged()) {
+            return;
+        }
+
+        File corrupt = new File(f.getPath() + CORRUPT_SUFFIX);
+        try {
+            Files.copy(f.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        addNote(String.format(COMPACT_NOTE, result.getDamagedCount(), f.getName(), corrupt.getName()));
+    }
+
+    private static LoadResult readText(File f)
+            throws FileNotFoundException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        boolean isWorthSplitting = pool.getParallelism() > 1 && f.length() >= 2L * ChunkedReader.DEFAULT_CHUNK_SIZE;
+
+        return isWorthSplitting
+                ? ChunkedReader.read(f, pool, ChunkedReader.DEFAULT_CHUNK_SIZE)
+                : readTextInOrder(f);
+    }
+
+    /**
+     * Reads every task in the given text save file, one line after another.
+     *
+     * @param f The text save file.
+     * @return The tasks, in order, and how many lines were damaged.
+     * @throws FileNotFoundException If the file does not exist.
+     * @see LoadResult#addLine(String)
+     */
+    static LoadResult readTextInOrder(File f)
+            throws FileNotFoundException {
+        LoadResult result = new LoadResult();
+
+        BufferedReader reader = openReader(f);
+
+        try (BufferedReader br = reader) {
+            String line = br.readLine();
+            while (line != null) {
+                result.addLine(line);
+                line = br.readLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.finish();
+    }
+
+    private void appendJournal(ArrayList<String> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        synchronized (this.journalLock) {
+            boolean isNew = (this.journal.length() == 0);
+
+            try (FileOutputStream fos = new FileOutputStream(this.journal, true)) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8));
+                if (isNew) {
+                    w.write(withCheck(JOURNAL_HEADER));
+                    w.write("\n");
+                }
+                for (String change : changes) {
+                    w.write(withCheck(change));
+                    w.write("\n");
+                }
+
+                w.flush();
+                fos.getFD().sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            this.journalRecords += changes.size();
+            this.journalBytes = this.journal.length();
+        }
+
+        if (this.compactor != null) {
+            this.compactor.check(getJournalRecords(), getJournalBytes());
+        }
+    }
+
+    private static LoadResult replayJournal(TaskList tl, File journal, boolean isAfterDamage)
+            throws FileNotFoundException {
+        LoadResult result = new LoadResult();
+        if (!journal.exists()) {
+            return result;
+        }
+
+        BufferedReader reader = openReader(journal);
+
+        try (BufferedReader br = reader) {
+            boolean isChecked = false;
+            String line = br.readLine();
+            while (line != null && !result.isDamaged() && !isAfterDamage) {
+                isChecked |= hasCheck(line);
+                try {
+                    String record = checkedRecord(line, isChecked);
+                    if (!record.equals(JOURNAL_HEADER)) {
+                        replayChange(tl, record);
+                        result.addRecords(1);
+                    }
+                } catch (RuntimeException e) {
+                    // later records depend on this one, so they cannot be replayed either
+                    result.addRecords(1);
+                    result.addDamaged();
+                }
+                line = br.readLine();
+            }
+
+            while (line != null) {
+                result.addRecords(1);
+                result.addDamaged();
+                line = br.readLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result;
+    }
+
+    private static BufferedReader openReader(File f)
+            throws FileNotFoundException {
+        try {
+            FileChannel fc = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+            return new BufferedReader(Channels.newReader(fc, StandardCharsets.UTF_8), READ_BUFFER);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(f.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void replayChange(TaskList tl, String change) {
+        // type SEP args...
+        int typeEnd = change.indexOf(Task.SEP);
+        String type = (typeEnd == -1) ? change : change.substring(0, typeEnd);
+        String args = (typeEnd == -1) ? "" : change.substring(typeEnd + Task.SEP.length());
+
+        switch (type) {
+        case TaskList.LOG_ADD:
+            tl.addTask(restoreTask(args));
+            break;
+
+        case TaskList.LOG_MARK:
+            tl.markTasks(readIndexes(tl, change, args));
+            break;
+
+        case TaskList.LOG_UNMARK:
+            tl.unmarkTasks(readIndexes(tl, change, args));
+            break;
+
+        case TaskList.LOG_DELETE:
+            tl.delTasks(readIndexes(tl, change, args));
+            break;
+
+        case TaskList.LOG_EDIT:
+            int numEnd = args.indexOf(Task.SEP);
+            if (numEnd == -1) {
+                throw badRecord(change, "has no new description");
+            }
+            tl.editTaskDesc(readIndex(tl, change, args.substring(0, numEnd)),
+                    args.substring(numEnd + Task.SEP.length()));
+            break;
+
+        case TaskList.LOG_SORT:
+            tl.sort();
+            break;
+
+        default:
+            throw badRecord(change, "is not a known journal record");
+        }
+    }
+
+    private static ArrayList<Integer> readIndexes(TaskList tl, String change, String args) {
+        // a batch of indexes is separated the same way as other arguments
+        ArrayList<Integer> nums = new ArrayList<>();
+
+        int start = 0;
+        int end = args.indexOf(Task.SEP);
+        while (end != -1) {
+            nums.add(readIndex(tl, change, args.substring(start, end)));
+            start = end + Task.SEP.length();
+            end = args.indexOf(Task.SEP, start);
+        }
+        nums.add(readIndex(tl, change, args.substring(start)));
+
+        return nums;
+    }
+
+    private static int readIndex(TaskList tl, String change, String numStr) {
+        int num = Integer.parseInt(numStr);
+        if (tl.notInRange(num)) {
+            throw badRecord(change, "refers to a missing task");
+        }
+
+        return num;
+    }
+
+    static Task restoreTask(String taskSave) {
+        // type SEP done SEP desc SEP due/from SEP to
+        // fields are found with indexOf rather than split, which goes through the regex machinery
+        int sepLen = Task.SEP.length();
+        int doneStart = taskSave.indexOf(Task.SEP) + sepLen;
+        int descStart = taskSave.indexOf(Task.SEP, doneStart) + sepLen;
+        if (doneStart < sepLen || descStart <= doneStart) {
+            throw badRecord(taskSave, "is formatted incorrectly");
+        }
 
-        boolean isDone = splitSave[1].equals(Task.DONE_TRUE);
-        String desc = splitSave[2];
+        boolean isDone = taskSave.startsWith(Task.DONE_TRUE, doneStart);
+        int descEnd = taskSave.indexOf(Task.SEP, descStart);
+        int toStart = (descEnd == -1) ? -1 : taskSave.indexOf(Task.SEP, descEnd + sepLen) + sepLen;
 
-        switch (splitSave[0]) {
+        switch (taskSave.substring(0, doneStart - sepLen)) {
         case Task.TODO_SYMBOL:
-            assert splitSave.length == 3 : taskError + "is not a ToDo task";
-            return new Task(desc, isDone);
+            if (descEnd != -1) {
+                throw badRecord(taskSave, "is not a ToDo task");
+            }
+            return new Task(taskSave.substring(descStart), isDone);
 
         case Deadline.DEADLINE_SYMBOL:
-            assert splitSave.length == 4 : taskError + "is not a Deadline task";
-            return new Deadline(desc, LocalDateTime.parse(splitSave[3]), isDone);
+            if (descEnd == -1 || toStart >= sepLen) {
+                throw badRecord(taskSave, "is not a Deadline task");
+            }
+            return new Deadline(taskSave.substring(descStart, descEnd),
+                    TimeStuff.isoToDT(taskSave, descEnd + sepLen, taskSave.length()), isDone);
 
         case Event.EVENT_SYMBOL:
-            assert splitSave.length == 5 : taskError + "is not an Event task";
-            return new Event(desc, LocalDateTime.parse(splitSave[3]), LocalDateTime.parse(splitSave[4]), isDone);
+            if (descEnd == -1 || toStart < sepLen) {
+                throw badRecord(taskSave, "is not an Event task");
+            }
+            return new Event(taskSave.substring(descStart, descEnd),
+                    TimeStuff.isoToDT(taskSave, descEnd + sepLen, toStart - sepLen),
+                    TimeStuff.isoToDT(taskSave, toStart, taskSave.length()), isDone);
 
         default:
-            throw new UncheckedIOException(new IOException("Unknown task type symbol: " + splitSave[0]));
+            throw badRecord(taskSave, "has an unknown task type");
         }
     }
 }
@@ -0,0 +1,160 @@
+package cbot.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a single flat JSON object, such as one line of a JSON Lines file, into its fields.
+ * Values that are strings, numbers, true, false or null are kept as text; nested objects and
+ * arrays are not supported.
+ */
+class JsonObjectReader {
+    private final String text;
+    private int pos = 0;
+
+    /**
+     * Constructs a reader for the given JSON object.
+     *
+     * @param text The JSON object, as text.
+     */
+    JsonObjectReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Returns the fields of the object, by name. A null value is left out.
+     *
+     * @return The fields of the object.
+     * @throws IllegalArgumentException If the text is not a flat JSON object.
+     */
+    Map<String, String> read() {
+        Map<String, String> fields = new HashMap<>();
+
+        expect('{');
+        if (peek() == '}') {
+            this.pos++;
+            return fields;
+        }
+
+        do {
+            String name = readString();
+            expect(':');
+            String value = readValue();
+            if (value != null) {
+                fields.put(name, value);
+            }
+        } while (tryRead(','));
+
+        expect('}');
+        skipSpace();
+        if (this.pos != this.text.length()) {
+            throw fail("Unexpected text after object");
+        }
+
+        return fields;
+    }
+
+    private String readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        } else if (c == '{' || c == '[') {
+            throw fail("Nested values are not supported");
+        }
+
+        int start = this.pos;
+        while (this.pos < this.text.length() && ",}] \t".indexOf(this.text.charAt(this.pos)) < 0) {
+            this.pos++;
+        }
+
+        String literal = this.text.substring(start, this.pos);
+        if (literal.isEmpty()) {
+            throw fail("Missing value");
+        }
+
+        return literal.equals("null") ? null : literal;
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+
+        while (this.pos < this.text.length()) {
+            char c = this.text.charAt(this.pos++);
+            if (c == '"') {
+                return sb.toString();
+            } else if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if (this.pos >= this.text.length()) {
+                break;
+            }
+            char escaped = this.text.charAt(this.pos++);
+            switch (escaped) {
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'u':
+                if (this.pos + 4 > this.text.length()) {
+                    throw fail("Short unicode escape");
+                }
+                sb.append((char) Integer.parseInt(this.text.substring(this.pos, this.pos + 4), 16));
+                this.pos += 4;
+                break;
+            default:
+                // covers \" \\ and \/
+                sb.append(escaped);
+            }
+        }
+
+        throw fail("Unclosed string");
+    }
+
+    private char peek() {
+        skipSpace();
+        if (this.pos >= this.text.length()) {
+            throw fail("Unexpected end");
+        }
+
+        return this.text.charAt(this.pos);
+    }
+
+    private boolean tryRead(char c) {
+        if (peek() != c) {
+            return false;
+        }
+
+        this.pos++;
+        return true;
+    }
+
+    private void expect(char c) {
+        if (!tryRead(c)) {
+            throw fail("Expected '" + c + "'");
+        }
+    }
+
+    private void skipSpace() {
+        while (this.pos < this.text.length() && Character.isWhitespace(this.text.charAt(this.pos))) {
+            this.pos++;
+        }
+    }
+
+    private IllegalArgumentException fail(String problem) {
+        return new IllegalArgumentException(problem + " at " + this.pos + " in " + this.text);
+    }
+}
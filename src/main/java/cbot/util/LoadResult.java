@@ -0,0 +1,189 @@
+package cbot.util;
+
+import java.util.ArrayList;
+
+import cbot.task.Task;
+
+/**
+ * The tasks read from a save file, along with how many records were read, and how many
+ * damaged records had to be replaced or skipped.
+ */
+class LoadResult {
+    private final ArrayList<Task> tasks = new ArrayList<>();
+    private int recordCount = 0;
+    private int damagedCount = 0;
+
+    // whether any line read had a checksum, and where the tasks read from lines without one are
+    private boolean isChecked = false;
+    private final ArrayList<Integer> unchecked = new ArrayList<>();
+
+    /**
+     * Returns the tasks read so far, in order. Tasks are added to this list as they are read.
+     *
+     * @return The tasks.
+     */
+    ArrayList<Task> getTasks() {
+        return this.tasks;
+    }
+
+    /**
+     * Returns the number of records read, including damaged ones.
+     *
+     * @return The number of records.
+     */
+    int getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Returns the number of records that could not be read.
+     *
+     * @return The number of damaged records.
+     */
+    int getDamagedCount() {
+        return this.damagedCount;
+    }
+
+    /**
+     * Counts the given number of records as read.
+     *
+     * @param count The number of records.
+     */
+    void addRecords(int count) {
+        this.recordCount += count;
+    }
+
+    /**
+     * Counts one more record as damaged.
+     */
+    void addDamaged() {
+        addDamaged(1);
+    }
+
+    /**
+     * Counts the given number of records as damaged.
+     *
+     * @param count The number of damaged records.
+     */
+    void addDamaged(int count) {
+        this.damagedCount += count;
+    }
+
+    /**
+     * Returns true if any record could not be read.
+     *
+     * @return Whether the save file was damaged.
+     */
+    boolean isDamaged() {
+        return this.damagedCount > 0;
+    }
+
+    /**
+     * Reads the next line of a text save file into a task. Blank lines are not records, and are skipped.
+     * A damaged line stands alone in a save file, so it only leaves a gap, filled by {@link #finish()}.
+     *
+     * @param line The line.
+     * @see #isBlank(String)
+     */
+    void addLine(String line) {
+        if (isBlank(line)) {
+            return;
+        }
+
+        this.recordCount++;
+        boolean hasCheck = FileStuff.hasCheck(line);
+        this.isChecked |= hasCheck;
+
+        try {
+            Task task = FileStuff.restoreTask(FileStuff.checkedRecord(line, this.isChecked));
+            if (!hasCheck) {
+                this.unchecked.add(this.tasks.size());
+            }
+            this.tasks.add(task);
+        } catch (RuntimeException e) {
+            this.tasks.add(null);
+            this.damagedCount++;
+        }
+    }
+
+    /**
+     * Adds the lines read into the given result after the ones read into this one.
+     *
+     * @param part The lines read from the rest of the file.
+     */
+    void addAll(LoadResult part) {
+        for (int index : part.unchecked) {
+            this.unchecked.add(this.tasks.size() + index);
+        }
+
+        this.tasks.addAll(part.tasks);
+        this.recordCount += part.recordCount;
+        this.damagedCount += part.damagedCount;
+        this.isChecked |= part.isChecked;
+    }
+
+    /**
+     * Fills the gaps left by damaged lines with placeholders, once every line has been read, so that
+     * every task keeps its position (which the journal relies on). If any line had a checksum, the lines
+     * read before it without one are damaged too.
+     *
+     * @return This result.
+     */
+    LoadResult finish() {
+        if (this.isChecked) {
+            for (int index : this.unchecked) {
+                this.tasks.set(index, null);
+                this.damagedCount++;
+            }
+        }
+        this.unchecked.clear();
+
+        for (int i = 0; i < this.tasks.size() && this.isDamaged(); i++) {
+            if (this.tasks.get(i) == null) {
+                this.tasks.set(i, damagedTask(i + 1));
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns true if the given line of a text save file is only spaces, tabs and the like, and so holds no record.
+     * Only ASCII whitespace counts, so that lines can be told apart the same way byte by byte.
+     *
+     * @param line The line.
+     * @return Whether the line is blank.
+     * @see #isBlank(byte)
+     */
+    static boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= 0x80 || !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the given byte of a text save file is ASCII whitespace, which a blank line is made of.
+     *
+     * @param b The byte.
+     * @return Whether the byte is blank.
+     * @see #isBlank(String)
+     */
+    static boolean isBlank(byte b) {
+        return b >= 0 && Character.isWhitespace((char) b);
+    }
+
+    /**
+     * Returns the To-Do that stands in for the damaged task at the given position.
+     *
+     * @param num The position of the task, from 1.
+     * @return The placeholder.
+     */
+    static Task damagedTask(int num) {
+        return new Task("(damaged task " + num + ")");
+    }
+}
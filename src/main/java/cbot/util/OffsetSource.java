@@ -0,0 +1,258 @@
+package cbot.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cbot.task.Task;
+import cbot.task.TaskSource;
+
+/**
+ * Supplies the tasks of a text save file straight from the file, using an index of where each line starts.
+ * Opening only scans the file for line breaks; tasks are read and restored a page at a time, as they
+ * are needed, and only the most recently used pages are kept. Blank lines are skipped and damaged ones
+ * replaced with placeholders, as when the whole file is loaded at once (see {@link LoadResult#addLine(String)}).
+ * <p>
+ * The file stays open until this is closed, so later saves (which replace the file) do not disturb it.
+ */
+class OffsetSource implements TaskSource, Closeable {
+    static final int PAGE_SIZE = 256;
+    static final int CACHED_PAGES = 64;
+    private static final int SCAN_BUFFER = 1 << 16;
+    private static final byte[] CHECK_PREFIX = FileStuff.CHECK_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+    private final FileChannel channel;
+    private final long[] offsets;
+    private final byte[] symbols;
+    private final int count;
+    private final boolean isChecked;
+
+    private final LinkedHashMap<Integer, Task[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private int damagedCount = 0;
+
+    private OffsetSource(FileChannel channel, long[] offsets, byte[] symbols, int count, boolean isChecked) {
+        this.channel = channel;
+        this.offsets = offsets;
+        this.symbols = symbols;
+        this.count = count;
+        this.isChecked = isChecked;
+    }
+
+    /**
+     * Opens the given text save file, and finds where each of its non-blank lines start.
+     *
+     * @param f The text save file.
+     * @return The source of the tasks in the file.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    static OffsetSource open(File f)
+            throws FileNotFoundException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(f.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            return scan(channel);
+        } catch (IOException e) {
+            try {
+                channel.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static OffsetSource scan(FileChannel channel)
+            throws IOException {
+        // offsets[i] is where non-blank line i starts; offsets[count] is just past the end of the file
+        long[] offsets = new long[1024];
+        byte[] symbols = new byte[1024];
+        int count = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long position = 0;
+        long lineStart = 0;
+        boolean isBlank = true;
+        // whether any line has a checksum, checked while a line's end is still in the buffer
+        boolean isChecked = false;
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+
+                if (isBlank && !LoadResult.isBlank(b)) {
+                    if (count + 1 >= offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        symbols = Arrays.copyOf(symbols, symbols.length * 2);
+                    }
+                    offsets[count] = lineStart;
+                    symbols[count] = b;
+                    count++;
+                    isBlank = false;
+                }
+
+                position++;
+                if (b == '\n') {
+                    isChecked = isChecked || (!isBlank && endsWithCheck(buffer.array(), buffer.position() - 1));
+                    lineStart = position;
+                    isBlank = true;
+                }
+            }
+            buffer.clear();
+        }
+
+        offsets[count] = position;
+        return new OffsetSource(channel, offsets, symbols, count, isChecked);
+    }
+
+    private static boolean endsWithCheck(byte[] bytes, int lineEnd) {
+        int end = (lineEnd > 0 && bytes[lineEnd - 1] == '\r') ? lineEnd - 1 : lineEnd;
+        int checkStart = end - FileStuff.CHECK_LEN;
+        if (checkStart < 0) {
+            return false;
+        }
+
+        for (int i = 0; i < CHECK_PREFIX.length; i++) {
+            if (bytes[checkStart + i] != CHECK_PREFIX[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public synchronized Task fetch(int index) {
+        int pageNum = index / PAGE_SIZE;
+        Task[] page = this.pages.get(pageNum);
+
+        if (page == null) {
+            page = readPage(pageNum);
+            this.pages.put(pageNum, page);
+        }
+
+        return page[index % PAGE_SIZE];
+    }
+
+    @Override
+    public boolean mightBeBetween(int index, LocalDateTime from, LocalDateTime to) {
+        // To-Dos have no time, and their lines say so in the first byte
+        return this.symbols[index] != Task.TODO_SYMBOL.charAt(0);
+    }
+
+    /**
+     * Returns the number of damaged tasks found in the pages read so far.
+     *
+     * @return The number of damaged tasks.
+     */
+    synchronized int getDamagedCount() {
+        return this.damagedCount;
+    }
+
+    /**
+     * Returns the number of pages of tasks currently kept.
+     *
+     * @return The number of cached pages.
+     */
+    synchronized int getCachedPageCount() {
+        return this.pages.size();
+    }
+
+    private Task[] readPage(int pageNum) {
+        int first = pageNum * PAGE_SIZE;
+        int last = Math.min(this.count, first + PAGE_SIZE);
+        long start = this.offsets[first];
+
+        ByteBuffer bytes = ByteBuffer.allocate((int) (this.offsets[last] - start));
+        try {
+            while (bytes.hasRemaining() && this.channel.read(bytes, start + bytes.position()) > 0) {
+                // keep reading until the page is complete
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String text = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        ArrayList<Task> tasks = new ArrayList<>(last - first);
+        int lineStart = 0;
+
+        for (int i = first; i < last; i++) {
+            String line;
+            do {
+                // the blank lines after a line were skipped by the scan, so they are skipped here too
+                int lineEnd = text.indexOf('\n', lineStart);
+                lineEnd = (lineEnd < 0) ? text.length() : lineEnd;
+                int recordEnd = (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') ? lineEnd - 1 : lineEnd;
+                line = text.substring(lineStart, recordEnd);
+                lineStart = Math.min(lineEnd + 1, text.length());
+            } while (LoadResult.isBlank(line) && lineStart < text.length());
+
+            try {
+                tasks.add(FileStuff.restoreTask(FileStuff.checkedRecord(line, this.isChecked)));
+            } catch (RuntimeException e) {
+                tasks.add(LoadResult.damagedTask(i + 1));
+                this.damagedCount++;
+            }
+        }
+
+        return tasks.toArray(new Task[0]);
+    }
+
+    /**
+     * Copies the save file, as it was when it was opened, to the given file.
+     *
+     * @param f Where to copy the save file to.
+     * @throws IOException If the copy cannot be written.
+     */
+    synchronized void copyTo(File f)
+            throws IOException {
+        try (FileChannel out = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = this.offsets[this.count];
+            long position = 0;
+            while (position < size) {
+                position += this.channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Closes the save file. Tasks not yet read can no longer be fetched.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close()
+            throws IOException {
+        this.channel.close();
+    }
+}
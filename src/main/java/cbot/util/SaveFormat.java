@@ -0,0 +1,51 @@
+package cbot.util;
+
+/**
+ * A layout for the save file written by {@link FileStuff}.
+ */
+public enum SaveFormat {
+    /** One " ;; "-separated line per task. Easy to read and edit by hand. */
+    TEXT(".txt"),
+
+    /** A compact binary layout. Smaller, and faster to load and save. */
+    BINARY(".bin"),
+
+    /** A small index file, with the tasks split by month into shard files. Only the shards in use are loaded. */
+    SHARDED(".idx");
+
+    private final String extension;
+
+    SaveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the given save-file path with its extension replaced by the one for this format.
+     * e.g. "data/cbot_save.txt" becomes "data/cbot_save.bin" for BINARY.
+     *
+     * @param path The save-file path.
+     * @return The path of the save file in this format.
+     */
+    public String toPath(String path) {
+        int dotIndex = path.lastIndexOf('.');
+        boolean hasExtension = (dotIndex > path.lastIndexOf('/'));
+
+        return (hasExtension ? path.substring(0, dotIndex) : path) + this.extension;
+    }
+
+    /**
+     * Returns the format with the given name, ignoring case. Unknown or missing names give TEXT.
+     *
+     * @param name The name of the format, e.g. "binary".
+     * @return The corresponding format.
+     */
+    public static SaveFormat fromName(String name) {
+        for (SaveFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+
+        return TEXT;
+    }
+}
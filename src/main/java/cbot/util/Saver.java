@@ -0,0 +1,185 @@
+package cbot.util;
+
+import cbot.task.TaskList;
+
+/**
+ * Saves a TaskList to its save file, either right away or from a background writer thread.
+ * Save requests that arrive while the writer is waiting or busy are coalesced into a single write.
+ * The TaskList is locked while it is being written, so commands that change it should lock it too.
+ *
+ * @see Durability
+ * @see FileStuff#saveFile(TaskList)
+ */
+public class Saver {
+    private final FileStuff fs;
+    private final TaskList tl;
+    private final Durability mode;
+    private final long delayMillis;
+    private final int maxPending;
+
+    private final Object lock = new Object();
+    private final Thread writer;
+    private int pending = 0;
+    private long firstPendingAt;
+    private boolean isWriting = false;
+    private boolean isFlushing = false;
+    private boolean isClosed = false;
+    private int writeCount = 0;
+
+    /**
+     * Constructs a Saver for the given TaskList, and starts its writer thread if the mode needs one.
+     *
+     * @param fs The save file to write to.
+     * @param tl The TaskList to save.
+     * @param mode When changes should be written.
+     * @param delayMillis For GROUP, how long to wait for more changes after the first unsaved one.
+     * @param maxPending For GROUP, how many unsaved changes to allow before writing without waiting.
+     */
+    public Saver(FileStuff fs, TaskList tl, Durability mode, long delayMillis, int maxPending) {
+        this.fs = fs;
+        this.tl = tl;
+        this.mode = mode;
+        this.delayMillis = delayMillis;
+        this.maxPending = maxPending;
+
+        if (mode == Durability.SYNC) {
+            this.writer = null;
+            return;
+        }
+
+        this.writer = new Thread(this::runWriter, "cbot-saver");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Asks for the TaskList to be saved. In SYNC mode, it is saved before this returns.
+     */
+    public void requestSave() {
+        if (this.mode == Durability.SYNC) {
+            write();
+            return;
+        }
+
+        synchronized (this.lock) {
+            assert !this.isClosed : "Saver has been closed already";
+
+            if (this.pending == 0) {
+                this.firstPendingAt = System.currentTimeMillis();
+            }
+
+            this.pending++;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every save requested so far has been written, hurrying along any delayed write.
+     */
+    public void flush() {
+        if (this.mode == Durability.SYNC) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            this.isFlushing = true;
+            this.lock.notifyAll();
+
+            try {
+                while (this.pending > 0 || this.isWriting) {
+                    this.lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.isFlushing = false;
+            }
+        }
+    }
+
+    /**
+     * Writes any unsaved changes, then stops the writer thread. Nothing more should be requested afterwards.
+     */
+    public void close() {
+        flush();
+
+        if (this.mode == Durability.SYNC) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            this.isClosed = true;
+            this.lock.notifyAll();
+        }
+
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of times the save file has been written to so far.
+     *
+     * @return The number of writes.
+     */
+    public int getWriteCount() {
+        synchronized (this.lock) {
+            return this.writeCount;
+        }
+    }
+
+    private void runWriter() {
+        try {
+            while (awaitPending()) {
+                write();
+
+                synchronized (this.lock) {
+                    this.isWriting = false;
+                    this.lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitPending()
+            throws InterruptedException {
+        synchronized (this.lock) {
+            while (this.pending == 0) {
+                if (this.isClosed) {
+                    return false;
+                }
+                this.lock.wait();
+            }
+
+            if (this.mode == Durability.GROUP) {
+                long waitLeft = this.firstPendingAt + this.delayMillis - System.currentTimeMillis();
+                while (waitLeft > 0 && this.pending < this.maxPending && !this.isFlushing && !this.isClosed) {
+                    this.lock.wait(waitLeft);
+                    waitLeft = this.firstPendingAt + this.delayMillis - System.currentTimeMillis();
+                }
+            }
+
+            this.pending = 0;
+            this.isWriting = true;
+            return true;
+        }
+    }
+
+    private void write() {
+        try {
+            synchronized (this.tl) {
+                this.fs.saveFile(this.tl);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+
+        synchronized (this.lock) {
+            this.writeCount++;
+        }
+    }
+}
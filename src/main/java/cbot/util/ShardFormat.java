@@ -0,0 +1,317 @@
+package cbot.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+/**
+ * Reads and writes the {@link SaveFormat#SHARDED} save format.
+ * Tasks are split into shard files by the month of their time (e.g. "2023-03"), with one more
+ * shard for To-Dos. The save file itself is only a small index: a generation number, then runs of
+ * "shard ;; count" giving which shard each task, in order, comes from. Shard files are named after
+ * the generation they were written in, so a new save never touches the files an older index uses.
+ */
+class ShardFormat {
+    static final String TODO_SHARD = "todo";
+    private static final String SHARD_DIR_SUFFIX = ".d";
+    private static final String SHARD_EXTENSION = ".txt";
+
+    /**
+     * Returns the directory that holds the shard files of the given index file.
+     *
+     * @param index The index file.
+     * @return The shard directory.
+     */
+    static File getShardDir(File index) {
+        return new File(index.getPath() + SHARD_DIR_SUFFIX);
+    }
+
+    /**
+     * Returns the name of the shard that the task belongs in.
+     *
+     * @param task The task.
+     * @return The month of the task's time, or "todo".
+     */
+    static String getShard(Task task) {
+        return task.hasTime()
+                ? YearMonth.from(task.getTime()).toString()
+                : TODO_SHARD;
+    }
+
+    /**
+     * Writes the whole TaskList as shard files in the given directory, and its index to the given stream.
+     * The shard files are synced to disk before the index is written.
+     *
+     * @param tl The TaskList to write.
+     * @param os The stream to write the index to. It is flushed, but not closed.
+     * @param shardDir The directory to write shard files in.
+     * @throws IOException If a file cannot be written.
+     */
+    static void write(TaskList tl, OutputStream os, File shardDir)
+            throws IOException {
+        shardDir.mkdirs();
+        long generation = nextGeneration(shardDir);
+
+        Writer index = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        index.write(generation + "\n");
+
+        Map<String, FileOutputStream> shardFiles = new HashMap<>();
+        Map<String, Writer> shardWriters = new HashMap<>();
+        String runShard = null;
+        int runLength = 0;
+
+        try {
+            for (int i = 1; i <= tl.getCount(); i++) {
+                Task task = tl.getTask(i);
+                String shard = getShard(task);
+
+                if (!shardWriters.containsKey(shard)) {
+                    FileOutputStream fos = new FileOutputStream(new File(shardDir, fileName(generation, shard)));
+                    shardFiles.put(shard, fos);
+                    shardWriters.put(shard, new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8)));
+                }
+                shardWriters.get(shard).write(FileStuff.withCheck(task.makeFileFriendly()) + "\n");
+
+                if (!shard.equals(runShard) && runLength > 0) {
+                    index.write(runShard + Task.SEP + runLength + "\n");
+                    runLength = 0;
+                }
+                runShard = shard;
+                runLength++;
+            }
+
+            for (String shard : shardWriters.keySet()) {
+                shardWriters.get(shard).flush();
+                shardFiles.get(shard).getFD().sync();
+            }
+        } finally {
+            for (FileOutputStream fos : shardFiles.values()) {
+                fos.close();
+            }
+        }
+
+        if (runLength > 0) {
+            index.write(runShard + Task.SEP + runLength + "\n");
+        }
+        index.flush();
+    }
+
+    private static long nextGeneration(File shardDir) {
+        long generation = 0;
+
+        String[] names = shardDir.list();
+        for (String name : (names == null) ? new String[0] : names) {
+            try {
+                generation = Math.max(generation, Long.parseLong(name.substring(0, name.indexOf('-'))));
+            } catch (RuntimeException e) {
+                // not a shard file
+            }
+        }
+
+        return generation + 1;
+    }
+
+    private static String fileName(long generation, String shard) {
+        return generation + "-" + shard + SHARD_EXTENSION;
+    }
+
+    /**
+     * Deletes the shard files that the given index file does not use. Should only be called when
+     * nothing is still reading from an older index.
+     *
+     * @param index The index file.
+     */
+    static void clean(File index) {
+        if (!index.exists() || index.length() == 0) {
+            return;
+        }
+
+        String prefix = readIndex(index).getGeneration() + "-";
+        File[] shardFiles = getShardDir(index).listFiles();
+        for (File f : (shardFiles == null) ? new File[0] : shardFiles) {
+            if (!f.getName().startsWith(prefix)) {
+                f.delete();
+            }
+        }
+    }
+
+    /**
+     * Opens the given index file for lazy loading. Shards are only read when one of their tasks is needed.
+     *
+     * @param index The index file.
+     * @param budget How many tasks to keep loaded at most, give or take a shard.
+     * @return The source of the tasks.
+     * @throws FileNotFoundException If the index file does not exist.
+     */
+    static ShardSource open(File index, int budget)
+            throws FileNotFoundException {
+        if (!index.exists()) {
+            throw new FileNotFoundException(index.getPath());
+        }
+
+        return new ShardSource(readIndex(index), getShardDir(index), budget);
+    }
+
+    /**
+     * Reads every task in the given index file's shards.
+     *
+     * @param index The index file.
+     * @return The tasks, in order, and how many could not be read.
+     * @throws FileNotFoundException If the index file does not exist.
+     */
+    static LoadResult readAll(File index)
+            throws FileNotFoundException {
+        ShardSource source = open(index, Integer.MAX_VALUE);
+        LoadResult result = new LoadResult();
+
+        for (int i = 0; i < source.getCount(); i++) {
+            result.getTasks().add(source.fetch(i));
+        }
+        result.addRecords(source.getCount());
+        result.addDamaged(source.getDamagedCount());
+
+        return result;
+    }
+
+    /**
+     * Reads the tasks of one shard, in order. A damaged or missing task is replaced with a To-Do
+     * saying so, as the rest of the list relies on its position.
+     *
+     * @param shardDir The shard directory.
+     * @param generation The generation of the shard file.
+     * @param shard The name of the shard.
+     * @param count The number of tasks in the shard.
+     * @param result Where the tasks, and how many were damaged, are added.
+     */
+    static void readShard(File shardDir, long generation, String shard, int count, LoadResult result) {
+        File f = new File(shardDir, fileName(generation, shard));
+        int start = result.getTasks().size();
+
+        try (BufferedReader br = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            String line = br.readLine();
+            while (line != null && result.getTasks().size() - start < count) {
+                try {
+                    result.getTasks().add(FileStuff.restoreTask(FileStuff.checkedRecord(line, true)));
+                } catch (RuntimeException e) {
+                    result.getTasks().add(damagedTask(shard));
+                    result.addDamaged();
+                }
+                line = br.readLine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        while (result.getTasks().size() - start < count) {
+            result.getTasks().add(damagedTask(shard));
+            result.addDamaged();
+        }
+    }
+
+    private static Task damagedTask(String shard) {
+        return new Task("(damaged task from " + shard + ")");
+    }
+
+    private static Index readIndex(File index) {
+        try (BufferedReader br = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+            String line = br.readLine();
+            Index idx = new Index((line == null) ? 0 : Long.parseLong(line.trim()));
+
+            line = br.readLine();
+            while (line != null) {
+                int sepIndex = line.indexOf(Task.SEP);
+                int runLength = Integer.parseInt(line.substring(sepIndex + Task.SEP.length()));
+                idx.addRun(line.substring(0, sepIndex), runLength);
+                line = br.readLine();
+            }
+
+            return idx;
+        } catch (IOException | RuntimeException e) {
+            throw new UncheckedIOException(new IOException("Shard index " + index.getPath() + " is damaged", e));
+        }
+    }
+
+    /**
+     * The contents of an index file: its generation, and the runs of tasks from each shard, in order.
+     */
+    static class Index {
+        private final long generation;
+        private final ArrayList<String> runs = new ArrayList<>();
+        private final ArrayList<Integer> runLengths = new ArrayList<>();
+
+        Index(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * Adds a run of tasks from one shard after the runs already added.
+         *
+         * @param shard The name of the shard.
+         * @param length The number of tasks in the run.
+         */
+        void addRun(String shard, int length) {
+            this.runs.add(shard);
+            this.runLengths.add(length);
+        }
+
+        /**
+         * Returns the generation of the shard files.
+         *
+         * @return The generation.
+         */
+        long getGeneration() {
+            return this.generation;
+        }
+
+        /**
+         * Returns the shard of each run, in order.
+         *
+         * @return The shard names, which cannot be changed.
+         */
+        List<String> getRuns() {
+            return Collections.unmodifiableList(this.runs);
+        }
+
+        /**
+         * Returns the number of tasks in each run, in order.
+         *
+         * @return The run lengths, which cannot be changed.
+         */
+        List<Integer> getRunLengths() {
+            return Collections.unmodifiableList(this.runLengths);
+        }
+
+        /**
+         * Returns the number of tasks in each shard.
+         *
+         * @return The shard sizes, by shard name, in order of first appearance.
+         */
+        LinkedHashMap<String, Integer> getShardSizes() {
+            LinkedHashMap<String, Integer> sizes = new LinkedHashMap<>();
+            for (int i = 0; i < this.runs.size(); i++) {
+                sizes.merge(this.runs.get(i), this.runLengths.get(i), Integer::sum);
+            }
+
+            return sizes;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package cbot.util;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cbot.task.Task;
+import cbot.task.TaskSource;
+
+/**
+ * Supplies the tasks of a sharded save file, loading whole shards as they are needed.
+ * The least recently used shards are dropped once more tasks than the budget are loaded.
+ *
+ * @see ShardFormat
+ */
+class ShardSource implements TaskSource {
+    private final File shardDir;
+    private final long generation;
+    private final int budget;
+
+    private final ArrayList<String> shards = new ArrayList<>();
+    private final ArrayList<Integer> shardSizes = new ArrayList<>();
+    private final int[] shardOf;
+    private final int[] rowOf;
+
+    private final LinkedHashMap<Integer, ArrayList<Task>> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private int loadedCount = 0;
+    private int damagedCount = 0;
+
+    /**
+     * Constructs a source for the tasks listed in the given index. No shard is loaded yet.
+     *
+     * @param index The shard index.
+     * @param shardDir The directory holding the shard files.
+     * @param budget How many tasks to keep loaded at most, give or take a shard.
+     */
+    ShardSource(ShardFormat.Index index, File shardDir, int budget) {
+        this.shardDir = shardDir;
+        this.generation = index.getGeneration();
+        this.budget = budget;
+
+        Map<String, Integer> shardNums = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : index.getShardSizes().entrySet()) {
+            shardNums.put(entry.getKey(), this.shards.size());
+            this.shards.add(entry.getKey());
+            this.shardSizes.add(entry.getValue());
+        }
+
+        int count = index.getRunLengths().stream().mapToInt(Integer::intValue).sum();
+        this.shardOf = new int[count];
+        this.rowOf = new int[count];
+
+        int[] rowsSoFar = new int[this.shards.size()];
+        int i = 0;
+        for (int run = 0; run < index.getRuns().size(); run++) {
+            int shardNum = shardNums.get(index.getRuns().get(run));
+            for (int j = 0; j < index.getRunLengths().get(run); j++) {
+                this.shardOf[i] = shardNum;
+                this.rowOf[i] = rowsSoFar[shardNum]++;
+                i++;
+            }
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return this.shardOf.length;
+    }
+
+    @Override
+    public synchronized Task fetch(int index) {
+        int shardNum = this.shardOf[index];
+        ArrayList<Task> shardTasks = this.loaded.get(shardNum);
+
+        if (shardTasks == null) {
+            shardTasks = loadShard(shardNum);
+        }
+
+        return shardTasks.get(this.rowOf[index]);
+    }
+
+    @Override
+    public boolean mightBeBetween(int index, LocalDateTime from, LocalDateTime to) {
+        String shard = this.shards.get(this.shardOf[index]);
+        if (shard.equals(ShardFormat.TODO_SHARD)) {
+            return false;
+        }
+
+        YearMonth month = YearMonth.parse(shard);
+        return !month.atDay(1).atStartOfDay().isAfter(to)
+                && month.plusMonths(1).atDay(1).atStartOfDay().isAfter(from);
+    }
+
+    /**
+     * Returns the number of damaged tasks found in the shards loaded so far.
+     *
+     * @return The number of damaged tasks.
+     */
+    synchronized int getDamagedCount() {
+        return this.damagedCount;
+    }
+
+    /**
+     * Returns the number of shards currently loaded.
+     *
+     * @return The number of loaded shards.
+     */
+    synchronized int getLoadedShardCount() {
+        return this.loaded.size();
+    }
+
+    private ArrayList<Task> loadShard(int shardNum) {
+        LoadResult result = new LoadResult();
+        ShardFormat.readShard(this.shardDir, this.generation, this.shards.get(shardNum),
+                this.shardSizes.get(shardNum), result);
+        this.damagedCount += result.getDamagedCount();
+
+        this.loaded.put(shardNum, result.getTasks());
+        this.loadedCount += result.getTasks().size();
+
+        while (this.loadedCount > this.budget && this.loaded.size() > 1) {
+            int eldest = this.loaded.keySet().iterator().next();
+            this.loadedCount -= this.loaded.remove(eldest).size();
+        }
+
+        return result.getTasks();
+    }
+}
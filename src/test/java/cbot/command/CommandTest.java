@@ -1,10 +1,26 @@
 package cbot.command;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
 
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.task.TaskList;
+import cbot.util.FileStuff;
+import cbot.util.SaveFormat;
+
 public class CommandTest {
     @Test
     public void testNeedSaveTrue() {
@@ -40,4 +56,173 @@ public class CommandTest {
     public void testGetMatch12() {
         assertTrue(Command.BEFORE.matches("bef a"));
     }
+
+    private static TaskList makeList(int count) {
+        TaskList tl = new TaskList();
+        for (int i = 1; i <= count; i++) {
+            tl.addTask(new Task("task " + i));
+        }
+
+        return tl;
+    }
+
+    @Test
+    public void testListPageMatch() {
+        assertTrue(Command.LIST_PAGE.matches("list 20-40"));
+        assertFalse(Command.LIST.matches("list page 2"));
+        assertFalse(Command.LIST_PAGE.matches("list"));
+    }
+
+    @Test
+    public void testListPage() throws PoorInputException {
+        TaskList tl = makeList(30);
+
+        String out = Command.LIST_PAGE.runCommand(tl, "list page 2");
+        assertTrue(out.contains("(21-30 of 30)"));
+        assertTrue(out.contains(" 21. [T][ ] task 21"));
+        assertFalse(out.contains(" 20. "));
+
+        out = Command.LIST_PAGE.runCommand(tl, "list 5 - 6");
+        assertTrue(out.contains("  5. [T][ ] task 5") && out.contains("  6. [T][ ] task 6"));
+        assertFalse(out.contains("  7. "));
+
+        assertThrows(PoorInputException.class, () -> Command.LIST_PAGE.runCommand(tl, "list 31-40"));
+        assertThrows(PoorInputException.class, () -> Command.LIST_PAGE.runCommand(tl, "list 6-5"));
+        assertThrows(BadInputException.class, () -> Command.LIST_PAGE.runCommand(tl, "list six"));
+    }
+
+    @Test
+    public void testFindPage() throws PoorInputException {
+        TaskList tl = makeList(30);
+
+        // only 12 tasks have a "1", so they all fit on the first page
+        String out = Command.FIND.runCommand(tl, "find 1 page 1");
+        assertTrue(out.contains(" 21. [T][ ] task 21"));
+        out = Command.FIND.runCommand(tl, "find task page 2");
+        assertTrue(out.contains(" 21. [T][ ] task 21"));
+        assertFalse(out.contains(" 20. "));
+
+        out = Command.FIND.runCommand(tl, "find task page 3");
+        assertTrue(out.contains("Nothing on that page"));
+    }
+
+    @Test
+    public void testFilterMessage() throws PoorInputException {
+        TaskList tl = new TaskList();
+        LocalDateTime time = LocalDateTime.of(2023, 3, 1, 9, 0);
+        tl.addTask(new Task("read", true));
+        tl.addTask(new Deadline("essay", time));
+        tl.addTask(new Event("lecture", time, time.plusHours(2)));
+
+        String out = Command.FILTER.runCommand(tl, "filter t d");
+        assertTrue(out.contains("Here are your ToDos and Deadlines"));
+        assertTrue(out.contains("read") && out.contains("essay") && !out.contains("lecture"));
+
+        out = Command.FILTER.runCommand(tl, "filter t d e");
+        assertTrue(out.contains("Here are your ToDos, Deadlines and Events"));
+
+        out = Command.FILTER.runCommand(tl, "filter t done");
+        assertTrue(out.contains("Here are the Tasks that fit all that"));
+        assertTrue(out.contains("read") && !out.contains("essay"));
+    }
+
+    @Test
+    public void testQuery() throws PoorInputException {
+        TaskList tl = makeList(30);
+
+        String out = Command.QUERY.runCommand(tl, "query \"task 2\" & !\"task 2 \" page 1");
+        assertTrue(out.contains(" 29. [T][ ] task 29"));
+        assertFalse(Command.QUERY.needSave());
+        assertThrows(PoorInputException.class, () -> Command.QUERY.runCommand(tl, "query later"));
+
+        out = Command.EXPLAIN.runCommand(tl, "explain query \"task 2\" & todo");
+        assertTrue(out.contains("text index \"task 2\" (~11 of 30 tasks)"));
+    }
+
+    @Test
+    public void testNext() throws PoorInputException {
+        TaskList tl = makeList(3);
+        tl.addTask(new Deadline("later", LocalDateTime.now().plusDays(2)));
+        tl.addTask(new Deadline("sooner", LocalDateTime.now().plusDays(1)));
+        tl.addTask(new Deadline("past", LocalDateTime.now().minusDays(1)));
+
+        String out = Command.NEXT.runCommand(tl, "next 1");
+        assertTrue(out.contains("  5. [D][ ] sooner"));
+        assertFalse(out.contains("later"));
+        assertFalse(Command.NEXT.needSave());
+        assertFalse(Command.NEXT.isCacheable());
+
+        assertThrows(BadInputException.class, () -> Command.NEXT.runCommand(tl, "next few"));
+        assertThrows(PoorInputException.class, () -> Command.NEXT.runCommand(tl, "next 0"));
+    }
+
+    @Test
+    public void testEventClash() throws PoorInputException {
+        TaskList tl = makeList(1);
+
+        String out = Command.EVENT.runCommand(tl, "event talk /from 2023-03-01 0900 /to 2023-03-01 1100");
+        assertFalse(out.contains("clashes"));
+        out = Command.EVENT.runCommand(tl, "event lunch /from 2023-03-01 1030 /to 2023-03-01 1200");
+        assertTrue(out.contains("It clashes with:\n  2. [E][ ] talk"));
+
+        out = Command.CONFLICTS.runCommand(tl, "clashes");
+        assertTrue(out.contains("  2. [E][ ] talk"));
+        assertTrue(out.contains("clashes with 3. [E][ ] lunch"));
+    }
+
+    @Test
+    public void testStats() throws PoorInputException {
+        TaskList tl = makeList(3);
+        tl.mark(2);
+        tl.addTask(new Deadline("late", LocalDateTime.now().minusWeeks(2)));
+
+        String out = Command.STATS.runCommand(tl, "stats");
+        assertTrue(out.contains("You have 4 task(s), 1 done:"));
+        assertTrue(out.contains("To-Dos: 3 (1 done)"));
+        assertTrue(out.contains("Overdue: 1 deadline(s)"));
+        assertTrue(out.contains("(today):"));
+        assertFalse(Command.STATS.isCacheable());
+    }
+
+    @Test
+    public void testExportText() throws IOException, PoorInputException {
+        File save = File.createTempFile("cbot", ".txt");
+        File binary = new File(SaveFormat.BINARY.toPath(save.getPath()));
+        File export = File.createTempFile("cbot", ".txt");
+        save.delete();
+        binary.deleteOnExit();
+        export.deleteOnExit();
+
+        FileStuff fs = new FileStuff(save.getPath(), SaveFormat.BINARY);
+        TaskList tl = new TaskList();
+        tl.addTask(new Task("read", true));
+        tl.addTask(new Event("talk", LocalDateTime.parse("2023-03-01T10:00"), LocalDateTime.parse("2023-03-01T12:00")));
+        fs.saveFile(tl);
+
+        TaskList loaded = new FileStuff(save.getPath(), SaveFormat.BINARY).loadFile();
+        String out = Command.EXPORT.runCommand(loaded, "export " + export.getPath());
+        assertTrue(out.contains("exported 2 task(s)"));
+        assertEquals(new FileStuff(export.getPath()).loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testImportFailsPartway() throws IOException {
+        File f = File.createTempFile("cbot", ".jsonl");
+        f.deleteOnExit();
+
+        // bytes that are not UTF-8 only come up once many tasks have been read
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < 2000; i++) {
+            bytes.write(("{\"type\":\"T\",\"description\":\"task " + i + "\"}\n").getBytes(StandardCharsets.UTF_8));
+        }
+        bytes.write(new byte[] {(byte) 0xff, (byte) 0xfe, '\n'});
+        Files.write(f.toPath(), bytes.toByteArray());
+
+        TaskList tl = new TaskList();
+        PoorInputException e = assertThrows(PoorInputException.class,
+                () -> Command.IMPORT.runCommand(tl, "import " + f.getPath()));
+        assertTrue(tl.getCount() > 0);
+        assertTrue(e.getMessage().contains("I only imported " + tl.getCount() + " task(s)"));
+        assertTrue(tl.getVersion() > 0);
+    }
 }
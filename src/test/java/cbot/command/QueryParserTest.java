@@ -0,0 +1,68 @@
+package cbot.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+
+public class QueryParserTest {
+    private static final LocalDateTime FEB = LocalDateTime.of(2023, 2, 1, 12, 0);
+
+    @Test
+    public void testPrecedence() throws PoorInputException {
+        assertEquals("(type T | (type E & done))", QueryParser.parse("todo | event & done").toString());
+        assertEquals("((type T | type E) & done)", QueryParser.parse("(todo or event) and done").toString());
+        assertEquals("(type D & !done & \"Big Report\")", QueryParser.parse("dl not done \"Big Report\"").toString());
+    }
+
+    @Test
+    public void testTimes() throws PoorInputException {
+        Query q = QueryParser.parse("deadline & before 2023-03-01 1400 & after 1/1/2023");
+
+        assertTrue(q.test(new Deadline("report", FEB)));
+        assertFalse(q.test(new Deadline("report", FEB.plusMonths(2))));
+        assertFalse(q.test(new Event("report", FEB, FEB)));
+        assertFalse(q.test(new Task("report")));
+    }
+
+    @Test
+    public void testTimeBeforeClause() throws PoorInputException {
+        Query q = QueryParser.parse("before 2023-03-01 1400 done after 1/1/2023 deadline");
+
+        assertTrue(q.test(new Deadline("report", FEB, true)));
+        assertFalse(q.test(new Deadline("report", FEB)));
+        assertFalse(q.test(new Event("report", FEB, FEB, true)));
+        assertEquals(QueryParser.parse("before 2023-03-01 1400 & done & after 1/1/2023 & deadline").toString(),
+                q.toString());
+    }
+
+    @Test
+    public void testText() throws PoorInputException {
+        Query q = QueryParser.parse("\"REP\" & undone");
+
+        assertTrue(q.test(new Task("big report")));
+        assertFalse(q.test(new Task("big report", true)));
+        assertFalse(q.test(new Task("big rap")));
+    }
+
+    @Test
+    public void testBadQueries() {
+        assertThrows(BadInputException.class, () -> QueryParser.parse("  "));
+        assertThrows(BadInputException.class, () -> QueryParser.parse("(todo | done"));
+        assertThrows(BadInputException.class, () -> QueryParser.parse("todo)"));
+        assertThrows(BadInputException.class, () -> QueryParser.parse("todo &"));
+        assertThrows(BadInputException.class, () -> QueryParser.parse("\"report"));
+        assertThrows(BadInputException.class, () -> QueryParser.parse("before & todo"));
+        assertThrows(PoorInputException.class, () -> QueryParser.parse("todo & soon"));
+        assertThrows(DateTimeParseException.class, () -> QueryParser.parse("after someday"));
+    }
+}
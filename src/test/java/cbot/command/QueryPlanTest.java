@@ -0,0 +1,83 @@
+package cbot.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Page;
+import cbot.task.Task;
+import cbot.task.TaskLayout;
+import cbot.task.TaskList;
+
+public class QueryPlanTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 9, 0);
+    private static final String[] QUERIES = {
+        "deadline & undone & before 2023-03-01 & \"report\"",
+        "(todo | event) & done",
+        "after 2023-02-01 & before 2023-02-10",
+        "\"rep\" | \"task 1\"",
+        "!deadline & \"task 2\" & after 2023-01-15",
+        "done",
+    };
+
+    private static ArrayList<Task> makeTasks() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String desc = (i % 7 == 0) ? "report " + i : "task " + i;
+            LocalDateTime time = START.plusHours(7L * i);
+            switch (i % 3) {
+            case 0:
+                tasks.add(new Task(desc, i % 2 == 0));
+                break;
+            case 1:
+                tasks.add(new Deadline(desc, time, i % 4 == 1));
+                break;
+            default:
+                tasks.add(new Event(desc, time, time.plusHours(1), i % 5 == 0));
+                break;
+            }
+        }
+
+        return tasks;
+    }
+
+    @Test
+    public void testSameAsFullScan() throws PoorInputException {
+        for (TaskLayout layout : TaskLayout.values()) {
+            TaskList tl = new TaskList(makeTasks(), layout);
+            for (String text : QUERIES) {
+                Query query = QueryParser.parse(text);
+                assertEquals(tl.listFilter(query), QueryPlan.of(query, tl).run(tl, Page.ALL), text);
+            }
+        }
+    }
+
+    @Test
+    public void testPicksFewest() throws PoorInputException {
+        TaskList tl = new TaskList(makeTasks());
+
+        // 43 reports and 134 tasks before March, but only 7 tasks in those two days
+        String explained = QueryPlan.of(QueryParser.parse(QUERIES[0]), tl).explain();
+        assertTrue(explained.contains("Scan: text index \"report\" (~43 of 300 tasks)"), explained);
+        explained = QueryPlan.of(QueryParser.parse("\"report\" & after 2023-02-01 & before 2023-02-03"), tl).explain();
+        assertTrue(explained.contains("Scan: time index"), explained);
+        assertTrue(explained.contains("Check: \"report\" & after"), explained);
+
+        explained = QueryPlan.of(QueryParser.parse("event & \"report\""), tl).explain();
+        assertTrue(explained.contains("Scan: text index \"report\""), explained);
+        assertTrue(explained.contains("Check: type E"), explained);
+
+        explained = QueryPlan.of(QueryParser.parse("(todo | event) & done"), tl).explain();
+        assertTrue(explained.contains("Scan: type/status index [T/E, done]"), explained);
+        assertTrue(explained.contains("Check: nothing else"), explained);
+
+        explained = QueryPlan.of(QueryParser.parse("!done"), tl).explain();
+        assertTrue(explained.contains("Scan: full scan (~300 of 300 tasks)"), explained);
+    }
+}
@@ -0,0 +1,93 @@
+package cbot.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+public class ResultCacheTest {
+    private static TaskList makeList() {
+        TaskList tl = new TaskList();
+        tl.addTask(new Task("read book"));
+        tl.addTask(new Task("return book", true));
+        return tl;
+    }
+
+    @Test
+    public void testHitUntilChanged() throws PoorInputException {
+        TaskList tl = makeList();
+        ResultCache cache = new ResultCache(8);
+
+        String out = cache.respond(Command.FIND, "find book", tl);
+        assertSame(out, cache.respond(Command.FIND, "SEARCH book ", tl));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.respond(Command.MARK, "mark 1", tl);
+        String newOut = cache.respond(Command.FIND, "find book", tl);
+        assertTrue(newOut.contains("[T][X] read book"));
+        assertFalse(out.contains("[T][X] read book"));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testSpacesInTextKept() throws PoorInputException {
+        TaskList tl = makeList();
+        tl.addTask(new Task("notebook"));
+        ResultCache cache = new ResultCache(8);
+
+        // FIND looks for " book" here, which "notebook" does not have
+        String spaced = cache.respond(Command.FIND, "find  book", tl);
+        String out = cache.respond(Command.FIND, "find book", tl);
+        assertFalse(spaced.contains("notebook"));
+        assertTrue(out.contains("notebook"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testOnlyReadsAreKept() throws PoorInputException {
+        TaskList tl = makeList();
+        ResultCache cache = new ResultCache(8);
+
+        cache.respond(Command.TODO, "todo write book", tl);
+        cache.respond(Command.TODO, "todo write book", tl);
+        assertEquals(4, tl.getCount());
+        assertEquals(0, cache.size());
+
+        // errors are not kept either
+        assertThrows(PoorInputException.class, () -> cache.respond(Command.FILTER, "filter soon", tl));
+        assertThrows(PoorInputException.class, () -> cache.respond(Command.FILTER, "filter soon", tl));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDropped() throws PoorInputException {
+        TaskList tl = makeList();
+        ResultCache cache = new ResultCache(2);
+
+        cache.respond(Command.LIST, "list", tl);
+        cache.respond(Command.FIND, "find read", tl);
+        cache.respond(Command.LIST, "list", tl);
+        cache.respond(Command.FIND, "find return", tl);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+
+        // "find read" was dropped, but "list" was used since
+        cache.respond(Command.LIST, "LIST", tl);
+        cache.respond(Command.FIND, "find read", tl);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+
+        // another list starts afresh
+        cache.respond(Command.LIST, "list", makeList());
+        assertEquals(5, cache.getMissCount());
+    }
+}
@@ -0,0 +1,81 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+public class ColumnSlotsTest {
+    private static final LocalDateTime TIME = LocalDateTime.parse("2023-03-01T10:30:15");
+
+    private static ColumnSlots makeSlots() {
+        ColumnSlots slots = new ColumnSlots(8, new StringPool());
+        slots.set(0, new Task("todo", true));
+        slots.set(1, new Deadline("due", TIME));
+        slots.set(2, new Event("event", TIME.minusDays(1), TIME.plusNanos(7), true));
+        return slots;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        ColumnSlots slots = makeSlots();
+        assertEquals(slots.get(0).makeFileFriendly(), "T ;; X ;; todo");
+        assertEquals(slots.get(1).makeFileFriendly(), "D ;;   ;; due ;; 2023-03-01T10:30:15");
+        assertEquals(slots.get(2).makeFileFriendly(),
+                "E ;; X ;; event ;; 2023-02-28T10:30:15 ;; 2023-03-01T10:30:15.000000007");
+        assertNull(slots.get(3));
+        assertNotSame(slots.get(0), slots.get(0));
+
+        slots.clear(0);
+        assertNull(slots.get(0));
+    }
+
+    @Test
+    public void testPackAndSort() {
+        ColumnSlots slots = makeSlots();
+        TaskSlots packed = slots.pack(new int[] {2, 0}, 4);
+        assertEquals(packed.get(0).getDesc(), "event");
+        assertEquals(packed.get(1).getDesc(), "todo");
+        assertNull(packed.get(2));
+
+        assertEquals(Arrays.toString(slots.sort(new int[] {1, 2, 0})), "[0, 2, 1]");
+    }
+
+    @Test
+    public void testFilters() {
+        ColumnSlots slots = makeSlots();
+        assertEquals(slots.selectKinds(Collections.emptyList(), true).toString(), "{0, 2}");
+        assertEquals(slots.selectKinds(Arrays.asList("D", "E"), null).toString(), "{1, 2}");
+        assertEquals(slots.between(TIME.minusDays(1), TIME), new ArrayList<>(Arrays.asList(1, 2)));
+        assertEquals(slots.between(TIME.minusDays(1).plusNanos(1), TIME), new ArrayList<>(Arrays.asList(1)));
+    }
+
+    @Test
+    public void testOffHeapKeptAfterCompacting() {
+        DescArena arena = new DescArena();
+        ColumnSlots slots = new ColumnSlots(10_000, arena);
+        for (int id = 0; id < 10_000; id++) {
+            slots.set(id, new Deadline("description number " + id, TIME));
+        }
+        int grownCapacity = arena.capacity();
+        for (int id = 0; id < 10_000; id++) {
+            if (id % 3 == 0) {
+                slots.set(id, new Task("edited " + id));
+            } else {
+                slots.clear(id);
+            }
+        }
+
+        assertTrue(arena.capacity() < grownCapacity);
+        for (int id = 0; id < 10_000; id += 3) {
+            assertEquals(slots.get(id).getDesc(), "edited " + id);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class DescArenaTest {
+    @Test
+    public void testRoundTrip() {
+        DescArena arena = new DescArena();
+        long empty = arena.add("");
+        long accented = arena.add("caf\u00e9 \u6f22\u5b57");
+        long plain = arena.add("plain");
+
+        assertEquals(arena.get(empty), "");
+        assertEquals(arena.get(accented), "caf\u00e9 \u6f22\u5b57");
+        assertEquals(arena.get(plain), "plain");
+    }
+
+    @Test
+    public void testGrowAndCompact() {
+        DescArena arena = new DescArena();
+        long[] handles = new long[10_000];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = arena.add("description number " + i);
+        }
+        int grownCapacity = arena.capacity();
+
+        // a slot is still used if it is a multiple of 10
+        long liveBytes = 0;
+        for (int i = 0; i < handles.length; i++) {
+            if (i % 10 != 0) {
+                arena.release(handles[i]);
+            } else {
+                liveBytes += ("description number " + i).length();
+            }
+        }
+        arena.compact(handles, i -> i % 10 == 0);
+
+        assertTrue(arena.capacity() < grownCapacity);
+        assertEquals(arena.usedBytes(), liveBytes);
+        for (int i = 0; i < handles.length; i += 10) {
+            assertEquals(arena.get(handles[i]), "description number " + i);
+        }
+        assertEquals(arena.get(arena.add("after")), "after");
+    }
+}
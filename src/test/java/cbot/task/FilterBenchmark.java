@@ -0,0 +1,62 @@
+package cbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Times FILTER over a big list with 1, 2, 4, ... threads, up to the number of cores.
+ * Not a test; run it with "gradlew filterBenchmark".
+ * The optional arguments are the number of tasks (default 1,000,000) and the number of filters (default 10).
+ */
+public class FilterBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int taskCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int filterCount = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        ArrayList<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add((i % 2 == 0)
+                    ? new Task("read book " + i, i % 3 == 0)
+                    : new Deadline("submit report " + i, START.plusMinutes(i), i % 5 == 0));
+        }
+        TaskList tl = new TaskList(tasks);
+
+        // a clause that matches about half the tasks, so formatting counts as well
+        LocalDateTime middle = START.plusMinutes(taskCount / 2);
+        Predicate<Task> pred = t -> !t.getStatus().equals(Task.DONE_TRUE)
+                && (!t.hasTime() || t.getTime().isAfter(middle))
+                && t.getDesc().toLowerCase().contains("o");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%,d tasks, %,d matches, %d cores%n", taskCount, tl.listFilter(pred).size(), cores);
+
+        for (int round = 0; round < 2; round++) {
+            double oneThread = 0;
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                double millis = time(tl, pred, threads, filterCount);
+                oneThread = (threads == 1) ? millis : oneThread;
+                System.out.printf("%3d thread(s) %9.2f ms/filter  x%.2f%n", threads, millis, oneThread / millis);
+            }
+        }
+    }
+
+    private static double time(TaskList tl, Predicate<Task> pred, int threads, int filterCount)
+            throws InterruptedException, ExecutionException {
+        // a parallel stream runs in the pool of the thread that starts it
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < filterCount; i++) {
+                pool.submit(() -> tl.listFilter(pred)).get();
+            }
+            return (System.nanoTime() - start) / 1e6 / filterCount;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cbot.task;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Times FIND over a big list, through the trigram index and by lowercasing every description as before.
+ * Not a test; run it with "gradlew findBenchmark".
+ * The optional arguments are the number of tasks (default 300,000) and the number of searches (default 50).
+ */
+public class FindBenchmark {
+    private static final String[] WORDS = {"read", "book", "week", "lecture", "tutorial", "quiz", "project",
+        "meeting", "groceries", "laundry", "gym", "dentist", "submit", "report", "review", "call", "mum"};
+
+    public static void main(String[] args) {
+        int taskCount = (args.length > 0) ? Integer.parseInt(args[0]) : 300_000;
+        int searchCount = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+
+        Random random = new Random(12);
+        TaskList tl = new TaskList();
+        for (int i = 0; i < taskCount; i++) {
+            tl.addTask(new Task(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i));
+        }
+
+        String[] searches = new String[searchCount];
+        for (int i = 0; i < searchCount; i++) {
+            searches[i] = (i % 2 == 0)
+                    ? WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    : "Lecture " + random.nextInt(taskCount);
+        }
+
+        // the first search also builds the index
+        long start = System.nanoTime();
+        tl.listFind(searches[0]);
+        System.out.printf("%,d tasks; index built in %d ms%n", taskCount, (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 0; round < 3; round++) {
+            long indexNanos = time(searches, tl::listFind);
+            long scanNanos = time(searches, text -> {
+                String lowText = text.toLowerCase();
+                return tl.listFilter(t -> t.getDesc().toLowerCase().contains(lowText));
+            });
+            System.out.printf("index %8.2f ms/search   scan %8.2f ms/search%n",
+                    indexNanos / 1e6 / searchCount, scanNanos / 1e6 / searchCount);
+        }
+    }
+
+    private static long time(String[] searches, Search search) {
+        long start = System.nanoTime();
+        for (String text : searches) {
+            search.run(text);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private interface Search {
+        ArrayList<String> run(String text);
+    }
+}
@@ -0,0 +1,36 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class InternPoolTest {
+    @Test
+    public void testSharedInstance() {
+        String first = new String("standup");
+        String second = new String("standup");
+        assertSame(InternPool.intern(second), InternPool.intern(first));
+
+        Task task = new Task(new String("standup"));
+        assertSame(task.getDesc(), InternPool.intern("standup"));
+        task.editDesc(new String("gym"));
+        assertSame(task.getDesc(), InternPool.intern(new String("gym")));
+    }
+
+    @Test
+    public void testLowerCase() {
+        assertEquals(InternPool.toLower("Read CS2103 Notes"), "read cs2103 notes");
+        assertSame(InternPool.toLower("already lower"), InternPool.intern("already lower"));
+    }
+
+    @Test
+    public void testStillRightWhenFull() {
+        // far more descriptions than slots, so most are pushed out
+        for (int i = 0; i < 100_000; i++) {
+            String desc = "Task " + i;
+            assertEquals(InternPool.intern(desc), desc);
+            assertEquals(InternPool.toLower(desc), "task " + i);
+        }
+    }
+}
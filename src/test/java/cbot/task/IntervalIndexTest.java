@@ -0,0 +1,87 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private static boolean overlaps(Task a, LocalDateTime start, LocalDateTime end) {
+        return a.getTime().isBefore(end) && ((Event) a).getEndTime().isAfter(start);
+    }
+
+    @Test
+    public void testSameAsEveryPair() {
+        Random random = new Random(18);
+        IntervalIndex index = new IntervalIndex();
+        HashMap<Integer, Task> events = new HashMap<>();
+
+        for (int id = 0; id < 400; id++) {
+            LocalDateTime start = START.plusHours(random.nextInt(500));
+            Task task = (id % 10 == 0)
+                    ? new Deadline("d", start)
+                    : new Event("e", start, start.plusHours(random.nextInt(8)));
+            index.add(id, task);
+            if (task instanceof Event) {
+                events.put(id, task);
+            }
+
+            if (id % 3 == 0) {
+                int removed = random.nextInt(id + 1);
+                if (events.containsKey(removed)) {
+                    index.remove(removed, events.remove(removed));
+                }
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime start = START.plusHours(random.nextInt(500));
+            LocalDateTime end = start.plusHours(random.nextInt(10));
+
+            ArrayList<Integer> expected = new ArrayList<>();
+            events.forEach((id, e) -> {
+                if (overlaps(e, start, end)) {
+                    expected.add(id);
+                }
+            });
+            ArrayList<Integer> found = new ArrayList<>();
+            index.overlapping(start, end, found::add);
+
+            expected.sort(null);
+            found.sort(null);
+            assertEquals(expected, found);
+        }
+
+        ArrayList<String> expectedPairs = new ArrayList<>();
+        events.forEach((a, e) -> events.forEach((b, f) -> {
+            if (a < b && overlaps(e, f.getTime(), ((Event) f).getEndTime())) {
+                expectedPairs.add(a + "-" + b);
+            }
+        }));
+        ArrayList<String> foundPairs = new ArrayList<>();
+        index.overlappingPairs((a, b) -> foundPairs.add(Math.min(a, b) + "-" + Math.max(a, b)));
+
+        expectedPairs.sort(null);
+        foundPairs.sort(null);
+        assertEquals(expectedPairs, foundPairs);
+    }
+
+    @Test
+    public void testTouchingIsNoClash() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(0, new Event("a", START, START.plusHours(1)));
+        index.add(1, new Event("b", START.plusHours(1), START.plusHours(2)));
+        index.add(2, new Event("c", START.plusMinutes(30), START.plusMinutes(90)));
+
+        ArrayList<String> pairs = new ArrayList<>();
+        index.overlappingPairs((a, b) -> pairs.add(a + "-" + b));
+        pairs.sort(null);
+        assertEquals("[0-2, 2-1]", pairs.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package cbot.task;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * Reports how much heap a big list takes in each {@link TaskLayout}, and how much each saves against
+ * OBJECTS, scaled to a million tasks. Off-heap bytes are reported apart, as the GC never scans them.
+ * Not a test; run it with "gradlew memoryReport".
+ * The optional argument is the number of tasks (default 1,000,000).
+ */
+public class MemoryReport {
+    public static void main(String[] args) {
+        int taskCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        double perMillion = 1_000_000.0 / taskCount;
+        System.out.printf("%,d tasks%n", taskCount);
+
+        long objectsHeap = 0;
+        for (TaskLayout layout : TaskLayout.values()) {
+            long heapBefore = usedHeap();
+            long directBefore = usedDirect();
+
+            TaskList tl = new TaskList(new ArrayList<>(), layout);
+            LocalDateTime time = LocalDateTime.parse("2023-03-01T10:00");
+            for (int i = 0; i < taskCount; i++) {
+                switch (i % 3) {
+                case 0:
+                    tl.addTask(new Task("todo task number " + i));
+                    break;
+                case 1:
+                    tl.addTask(new Deadline("deadline number " + i, time.plusMinutes(i)));
+                    break;
+                default:
+                    tl.addTask(new Event("event number " + i, time.plusMinutes(i), time.plusMinutes(i + 60)));
+                    break;
+                }
+            }
+
+            long heap = usedHeap() - heapBefore;
+            long direct = usedDirect() - directBefore;
+            if (layout == TaskLayout.OBJECTS) {
+                objectsHeap = heap;
+            }
+            System.out.printf("%-9s heap %7.1f MB   off-heap %7.1f MB   heap saved %7.1f MB per million tasks%n",
+                    layout, heap / 1e6, direct / 1e6, (objectsHeap - heap) * perMillion / 1e6);
+
+            // keeps the list alive until it has been measured
+            if (tl.getCount() != taskCount) {
+                throw new AssertionError();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -0,0 +1,37 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class StringPoolTest {
+    @Test
+    public void testSharedUntilReleased() {
+        StringPool pool = new StringPool();
+        long a = pool.add("task");
+        assertEquals(pool.add(new String("task")), a);
+        assertEquals(pool.size(), 1);
+
+        pool.release(a);
+        assertEquals(pool.get(a), "task");
+        pool.release(a);
+        assertNull(pool.get(a));
+        assertEquals(pool.size(), 0);
+    }
+
+    @Test
+    public void testNumbersGivenOutAgain() {
+        StringPool pool = new StringPool();
+        for (int i = 0; i < 100; i++) {
+            pool.add("s" + i);
+        }
+
+        long dropped = pool.add("s42");
+        pool.release(dropped);
+        pool.release(dropped);
+        assertEquals(pool.add("new"), dropped);
+        assertEquals(pool.size(), 100);
+        assertEquals(pool.get(dropped), "new");
+    }
+}
@@ -4,8 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -152,4 +156,422 @@ public class TaskListTest {
         assertEquals(tl.makeFileFriendly(),
                 "T ;;   ;; task\nT ;; X ;; done");
     }
+
+    @Test
+    public void testTakeChanges() {
+        TaskList tl = new TaskList();
+        tl.addTask(new Task("task"));
+        assertEquals(tl.takeChanges(), new ArrayList<String>());
+
+        tl.trackChanges();
+        tl.addTask(new Task("task"));
+        tl.mark(2);
+        tl.mark(2);
+        tl.delTask(1);
+        assertEquals(tl.takeChanges(),
+                new ArrayList<>(Arrays.asList(
+                        "ADD ;; T ;;   ;; task",
+                        "MARK ;; 2",
+                        "DEL ;; 1")));
+        assertEquals(tl.takeChanges(), new ArrayList<String>());
+    }
+
+    @Test
+    public void testListBeforeAfter() {
+        LocalDateTime start = LocalDateTime.parse("2023-03-01T00:00");
+        Random random = new Random(11);
+        TaskList tl = new TaskList();
+
+        for (int round = 0; round < 200; round++) {
+            LocalDateTime time = start.plusHours(random.nextInt(48));
+            switch (random.nextInt(5)) {
+            case 0:
+                tl.addTask(new Task("t" + round));
+                break;
+            case 1:
+                tl.addTask(new Event("e" + round, time, time.plusHours(1)));
+                break;
+            case 2:
+                if (tl.getCount() > 0) {
+                    tl.delTask(1 + random.nextInt(tl.getCount()));
+                    break;
+                }
+                // Fallthrough
+            default:
+                tl.addTask(new Deadline((round % 7 == 0) ? "" : "d" + round, time));
+                break;
+            }
+            if (round % 50 == 49) {
+                tl.sort();
+            }
+
+            Task timeTask = new Deadline("", time);
+            assertEquals(tl.listBefore(time), tl.listFilter(t -> t.hasTime() && t.compareTo(timeTask) < 0));
+            assertEquals(tl.listAfter(time), tl.listFilter(t -> t.hasTime() && t.compareTo(timeTask) > 0));
+        }
+    }
+
+    @Test
+    public void testListFind() {
+        String[] words = {"Read", "book", "CS2103", "ip", "week", "boOK club", "a"};
+        Random random = new Random(12);
+        TaskList tl = new TaskList();
+
+        for (int round = 0; round < 300; round++) {
+            String desc = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            switch (random.nextInt(4)) {
+            case 0:
+                if (tl.getCount() > 0) {
+                    tl.delTask(1 + random.nextInt(tl.getCount()));
+                }
+                break;
+            case 1:
+                if (tl.getCount() > 0) {
+                    tl.editTaskDesc(1 + random.nextInt(tl.getCount()), desc);
+                }
+                break;
+            default:
+                tl.addTask(new Task(desc));
+                break;
+            }
+            if (round % 100 == 99) {
+                tl.sort();
+            }
+
+            String text = words[random.nextInt(words.length)].substring(random.nextInt(2));
+            String lowText = text.toLowerCase();
+            assertEquals(tl.listFind(text), tl.listFilter(t -> t.getDesc().toLowerCase().contains(lowText)));
+        }
+
+        assertEquals(tl.listFind("no such task"), new ArrayList<String>());
+    }
+
+    @Test
+    public void testListKinds() {
+        LocalDateTime time = LocalDateTime.parse("2023-03-01T10:00");
+        Random random = new Random(13);
+        TaskList tl = new TaskList();
+        List<List<String>> symbolSets = Arrays.asList(Collections.emptyList(), Arrays.asList("D"),
+                Arrays.asList("T", "E"));
+        Boolean[] statuses = {null, true, false};
+
+        for (int round = 0; round < 300; round++) {
+            int num = 1 + random.nextInt(tl.getCount() + 1);
+            switch (random.nextInt(6)) {
+            case 0:
+                tl.addTask(new Task("t" + round));
+                break;
+            case 1:
+                tl.addTask(new Deadline("d" + round, time, random.nextBoolean()));
+                break;
+            case 2:
+                tl.addTask(new Event("e" + round, time, time));
+                break;
+            case 3:
+                if (num <= tl.getCount()) {
+                    tl.delTask(num);
+                }
+                break;
+            default:
+                if (num <= tl.getCount()) {
+                    if (random.nextBoolean()) {
+                        tl.mark(num);
+                    } else {
+                        tl.unmark(num);
+                    }
+                }
+                break;
+            }
+            if (round % 100 == 99) {
+                tl.sort();
+            }
+
+            List<String> symbols = symbolSets.get(random.nextInt(symbolSets.size()));
+            Boolean isDone = statuses[random.nextInt(statuses.length)];
+            assertEquals(tl.listKinds(symbols, isDone), tl.listFilter(t ->
+                    (symbols.isEmpty() || symbols.contains(t.getSymbol()))
+                    && (isDone == null || t.getStatus().equals(isDone ? Task.DONE_TRUE : Task.DONE_FALSE))));
+        }
+    }
+
+    @Test
+    public void testBatchSameAsOneByOne() {
+        TaskList batch = new TaskList();
+        TaskList single = new TaskList();
+        for (int i = 0; i < 10; i++) {
+            batch.addTask(new Task("t" + i));
+            single.addTask(new Task("t" + i));
+        }
+
+        assertEquals(batch.markTasks(Arrays.asList(2, 5, 2, 9)), 3);
+        assertEquals(batch.markTasks(Arrays.asList(5, 6)), 1);
+        assertEquals(batch.unmarkTasks(Arrays.asList(9, 1)), 1);
+        for (int num : Arrays.asList(2, 5, 6)) {
+            single.mark(num);
+        }
+
+        ArrayList<Task> removed = batch.delTasks(Arrays.asList(3, 10, 3, 1, 6));
+        assertEquals(removed.size(), 4);
+        assertEquals(removed.get(1).getDesc(), "t9");
+        for (int num : Arrays.asList(10, 6, 3, 1)) {
+            single.delTask(num);
+        }
+
+        assertEquals(batch.listTasks(), single.listTasks());
+        assertEquals(batch.listFind("t"), single.listFind("t"));
+    }
+
+    @Test
+    public void testColumnsSameAsObjects() {
+        sameAsObjects(TaskLayout.COLUMNS);
+    }
+
+    @Test
+    public void testOffHeapSameAsObjects() {
+        sameAsObjects(TaskLayout.OFF_HEAP);
+    }
+
+    private static void sameAsObjects(TaskLayout layout) {
+        LocalDateTime start = LocalDateTime.parse("2023-03-01T00:00");
+        Random random = new Random(16);
+        TaskList objects = new TaskList();
+        TaskList columns = new TaskList(new ArrayList<>(), layout);
+        String[] descs = {"Read", "read", "write", "sleep", "Sleep in"};
+
+        for (int round = 0; round < 400; round++) {
+            LocalDateTime time = start.plusMinutes(30L * random.nextInt(96)).plusNanos(random.nextInt(3));
+            String desc = descs[random.nextInt(descs.length)];
+            int num = 1 + random.nextInt(objects.getCount() + 1);
+            Task task;
+            switch (random.nextInt(7)) {
+            case 0:
+                task = new Task(desc);
+                break;
+            case 1:
+                task = new Deadline(desc, time, random.nextBoolean());
+                break;
+            case 2:
+                task = new Event(desc, time, time.plusHours(1).plusNanos(5));
+                break;
+            case 3:
+                if (num <= objects.getCount()) {
+                    assertEquals(columns.delTask(num), objects.delTask(num));
+                }
+                continue;
+            case 4:
+                if (num <= objects.getCount()) {
+                    assertEquals(columns.editTaskDesc(num, desc), objects.editTaskDesc(num, desc));
+                }
+                continue;
+            default:
+                if (num <= objects.getCount()) {
+                    assertEquals(columns.mark(num), objects.mark(num));
+                }
+                continue;
+            }
+
+            assertEquals(columns.addTask(task), objects.addTask(task));
+            if (round % 100 == 99) {
+                objects.sort();
+                columns.sort();
+            }
+
+            assertEquals(columns.listTasks(), objects.listTasks());
+            assertEquals(columns.listBefore(time), objects.listBefore(time));
+            assertEquals(columns.listAfter(time), objects.listAfter(time));
+            assertEquals(columns.listKinds(Arrays.asList("D", "E"), false),
+                    objects.listKinds(Arrays.asList("D", "E"), false));
+            assertEquals(columns.listFind("read"), objects.listFind("read"));
+        }
+
+        assertEquals(columns.makeFileFriendly(), objects.makeFileFriendly());
+    }
+
+    @Test
+    public void testPagesAreSlices() {
+        LocalDateTime time = LocalDateTime.parse("2023-03-01T10:00");
+        TaskList tl = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            tl.addTask((i % 2 == 0) ? new Task("todo " + i) : new Deadline("due " + i, time.plusHours(i), i % 3 == 0));
+        }
+
+        for (Page page : new Page[] {Page.of(1), Page.of(3), Page.between(7, 12), Page.between(95, 200)}) {
+            assertEquals(tl.listTasks(page), slice(tl.listTasks(), page));
+            assertEquals(tl.listFind("1", page), slice(tl.listFind("1"), page));
+            assertEquals(tl.listAfter(time, page), slice(tl.listAfter(time), page));
+            assertEquals(tl.listBefore(time.plusHours(80), page), slice(tl.listBefore(time.plusHours(80)), page));
+            assertEquals(tl.listKinds(Arrays.asList("D"), false, page),
+                    slice(tl.listKinds(Arrays.asList("D"), false), page));
+        }
+        assertEquals(tl.listTasks(Page.of(6)), new ArrayList<String>());
+    }
+
+    private static List<String> slice(List<String> all, Page page) {
+        return new ArrayList<>(all.subList(Math.min(all.size(), page.getFirst() - 1),
+                Math.min(all.size(), page.getLast())));
+    }
+
+    @Test
+    public void testVersion() {
+        TaskList tl = new TaskList();
+        long version = tl.getVersion();
+
+        tl.addTask(new Task("a"));
+        tl.addTask(new Deadline("b", LocalDateTime.of(2023, 1, 1, 0, 0)));
+        assertEquals(version + 2, tl.getVersion());
+
+        // reading, and changes that change nothing, leave it be
+        version = tl.getVersion();
+        tl.listTasks();
+        tl.listFind("a");
+        tl.unmark(1);
+        assertEquals(version, tl.getVersion());
+
+        tl.mark(1);
+        tl.editTaskDesc(1, "c");
+        tl.sort();
+        tl.unmarkTasks(Arrays.asList(1, 2));
+        tl.delTask(1);
+        assertEquals(version + 5, tl.getVersion());
+    }
+
+    @Test
+    public void testParallelFilterInOrder() {
+        for (TaskLayout layout : TaskLayout.values()) {
+            ArrayList<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 50_000; i++) {
+                tasks.add(new Task("task " + i, i % 3 == 0));
+            }
+
+            TaskList tl = new TaskList(tasks, layout);
+            // leaves gaps in the IDs
+            tl.delTasks(Arrays.asList(1, 5000, 5001, 40_000));
+
+            Page everything = Page.between(1, Integer.MAX_VALUE);
+            assertEquals(tl.listFilter(t -> t.getStatus().equals(Task.DONE_TRUE), everything),
+                    tl.listFilter(t -> t.getStatus().equals(Task.DONE_TRUE)));
+            assertEquals(tl.listTasks(), tl.listFilter(t -> true));
+        }
+    }
+
+    @Test
+    public void testListNext() {
+        Random random = new Random(17);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // few times, so many tasks share one
+            LocalDateTime time = start.plusDays(random.nextInt(40));
+            boolean isDone = random.nextInt(4) == 0;
+            switch (random.nextInt(3)) {
+            case 0:
+                tasks.add(new Task("t" + random.nextInt(50), isDone));
+                break;
+            case 1:
+                tasks.add(new Event("e" + random.nextInt(50), time, time.plusHours(1), isDone));
+                break;
+            default:
+                tasks.add(new Deadline("d" + random.nextInt(50), time, isDone));
+                break;
+            }
+        }
+
+        LocalDateTime now = start.plusDays(20);
+        ArrayList<Integer> nums = new ArrayList<>();
+        for (int num = 1; num <= tasks.size(); num++) {
+            Task task = tasks.get(num - 1);
+            if (task.hasTime() && task.getTime().isAfter(now) && !task.getStatus().equals(Task.DONE_TRUE)) {
+                nums.add(num);
+            }
+        }
+        // a stable sort, so tasks that compare equal stay in list order
+        nums.sort((a, b) -> tasks.get(a - 1).compareTo(tasks.get(b - 1)));
+
+        for (TaskLayout layout : TaskLayout.values()) {
+            TaskList tl = new TaskList(new ArrayList<>(tasks), layout);
+            String before = tl.makeFileFriendly();
+
+            for (int count : new int[] {1, 7, 30, 1000}) {
+                ArrayList<String> expected = new ArrayList<>();
+                for (int num : nums.subList(0, Math.min(count, nums.size()))) {
+                    expected.add(String.format("%3d. %s", num, tasks.get(num - 1)));
+                }
+                assertEquals(expected, tl.listNext(now, count));
+            }
+            assertEquals(before, tl.makeFileFriendly());
+        }
+    }
+
+    @Test
+    public void testConflicts() {
+        LocalDateTime start = LocalDateTime.of(2023, 3, 1, 9, 0);
+        ArrayList<Task> tasks = new ArrayList<>(Arrays.asList(
+                new Event("lecture", start, start.plusHours(2)),
+                new Deadline("essay", start.plusHours(1)),
+                new Event("lunch", start.plusHours(3), start.plusHours(4)),
+                new Event("meeting", start.plusHours(1), start.plusHours(3))));
+
+        for (TaskLayout layout : TaskLayout.values()) {
+            TaskList tl = new TaskList(new ArrayList<>(tasks), layout);
+            assertEquals(1, tl.listConflicts().size());
+            assertTrue(tl.listConflicts().get(0).startsWith("  1. [E][ ] lecture"));
+            assertTrue(tl.listConflicts().get(0).contains("clashes with 4. [E][ ] meeting"));
+
+            tl.addTask(new Event("brunch", start.plusHours(2), start.plusHours(5)));
+            assertEquals(2, tl.listOverlaps(5).size());
+            assertTrue(tl.listOverlaps(5).get(0).startsWith("  3. [E][ ] lunch"));
+            assertEquals(0, tl.listOverlaps(2).size());
+            assertEquals(3, tl.listConflicts().size());
+
+            // the lecture ends just as the brunch starts
+            tl.delTask(4);
+            tl.sort();
+            assertEquals(1, tl.listConflicts().size());
+            assertTrue(tl.listConflicts().get(0).startsWith("  3. [E][ ] brunch"));
+            assertTrue(tl.listConflicts().get(0).contains("clashes with 4. [E][ ] lunch"));
+        }
+    }
+
+    @Test
+    public void testConflictsFromSource() {
+        LocalDateTime start = LocalDateTime.of(2023, 3, 1, 9, 0);
+        List<Task> tasks = Arrays.asList(
+                new Task("read"),
+                new Event("lecture", start, start.plusHours(2)),
+                new Task("write"),
+                new Event("lunch", start.plusHours(3), start.plusHours(4)));
+        int[] fetches = new int[tasks.size()];
+
+        TaskList tl = new TaskList(new TaskSource() {
+            @Override
+            public int getCount() {
+                return tasks.size();
+            }
+
+            @Override
+            public Task fetch(int index) {
+                fetches[index]++;
+                return tasks.get(index);
+            }
+
+            @Override
+            public boolean mightBeBetween(int index, LocalDateTime from, LocalDateTime to) {
+                return tasks.get(index) instanceof Event;
+            }
+        });
+
+        // the source is read once for the events, then only for the tasks listed
+        tl.addTask(new Event("meeting", start.plusHours(1), start.plusHours(3)));
+        assertEquals(1, tl.listOverlaps(5).size());
+        assertEquals(2, fetches[1]);
+        assertEquals(1, fetches[3]);
+
+        tl.addTask(new Event("brunch", start.plusHours(2), start.plusHours(5)));
+        assertEquals(2, tl.listOverlaps(6).size());
+        assertEquals(2, fetches[3]);
+        tl.delTask(6);
+        assertEquals(1, tl.listOverlaps(5).size());
+        assertEquals(3, fetches[1]);
+        assertEquals(0, fetches[0] + fetches[2]);
+    }
 }
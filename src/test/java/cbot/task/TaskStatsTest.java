@@ -0,0 +1,114 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskStatsTest {
+    private static final LocalDate DAY = LocalDate.of(2023, 3, 1);
+
+    private static void assertCounted(TaskList tl) {
+        TaskStats stats = tl.getStats();
+        int[] counts = new int[3];
+        int[] doneCounts = new int[3];
+        int overdue = 0;
+        int deadlinesThisWeek = 0;
+        int eventsThisWeek = 0;
+        String symbols = Task.TODO_SYMBOL + Deadline.DEADLINE_SYMBOL + Event.EVENT_SYMBOL;
+
+        for (int num = 1; num <= tl.getCount(); num++) {
+            Task task = tl.getTask(num);
+            int type = symbols.indexOf(task.getSymbol());
+            counts[type]++;
+            boolean isDone = task.getStatus().equals(Task.DONE_TRUE);
+            doneCounts[type] += isDone ? 1 : 0;
+            if (isDone || !task.hasTime()) {
+                continue;
+            }
+
+            LocalDate day = task.getTime().toLocalDate();
+            boolean isThisWeek = !day.isBefore(DAY) && !day.isAfter(DAY.plusDays(6));
+            overdue += (type == 1 && day.isBefore(DAY)) ? 1 : 0;
+            deadlinesThisWeek += (type == 1 && isThisWeek) ? 1 : 0;
+            eventsThisWeek += (type == 2 && isThisWeek) ? 1 : 0;
+        }
+
+        for (int type = 0; type < 3; type++) {
+            assertEquals(counts[type], stats.getCount(symbols.substring(type, type + 1)));
+            assertEquals(doneCounts[type], stats.getDoneCount(symbols.substring(type, type + 1)));
+        }
+        assertEquals(tl.getCount(), stats.getCount());
+        assertEquals(overdue, stats.getOverdueCount(DAY));
+        assertEquals(deadlinesThisWeek, stats.getDeadlineCount(DAY, DAY.plusDays(6)));
+        assertEquals(eventsThisWeek, stats.getEventCount(DAY, DAY.plusDays(6)));
+    }
+
+    @Test
+    public void testKeptUpToDate() {
+        Random random = new Random(19);
+        for (TaskLayout layout : TaskLayout.values()) {
+            TaskList tl = new TaskList(new ArrayList<>(), layout);
+            tl.getStats();
+
+            for (int round = 0; round < 400; round++) {
+                LocalDateTime time = DAY.atStartOfDay().plusHours(random.nextInt(24 * 20) - 24 * 10);
+                int count = tl.getCount();
+                switch (random.nextInt(6)) {
+                case 0:
+                    tl.addTask(new Task("t" + round));
+                    break;
+                case 1:
+                    tl.addTask(new Event("e" + round, time, time.plusHours(2)));
+                    break;
+                case 2:
+                    if (count > 0) {
+                        tl.mark(1 + random.nextInt(count));
+                        break;
+                    }
+                    // Fallthrough
+                case 3:
+                    if (count > 0) {
+                        tl.unmarkTasks(Arrays.asList(1 + random.nextInt(count), 1 + random.nextInt(count)));
+                        break;
+                    }
+                    // Fallthrough
+                case 4:
+                    if (count > 1) {
+                        tl.delTasks(Arrays.asList(1 + random.nextInt(count), 1 + random.nextInt(count)));
+                        break;
+                    }
+                    // Fallthrough
+                default:
+                    tl.addTask(new Deadline("d" + round, time));
+                    break;
+                }
+                if (round % 100 == 99) {
+                    tl.sort();
+                }
+            }
+
+            assertCounted(tl);
+        }
+    }
+
+    @Test
+    public void testCountedOnFirstUse() {
+        LocalDateTime time = DAY.atTime(10, 0);
+        TaskList tl = new TaskList(new ArrayList<>(Arrays.asList(
+                new Task("a", true),
+                new Deadline("b", time.minusDays(1)),
+                new Deadline("c", time.plusDays(1), true),
+                new Event("d", time, time.plusHours(1)))));
+
+        assertCounted(tl);
+        assertEquals(1, tl.getStats().getOverdueCount(DAY));
+        assertEquals(0, tl.getStats().getDeadlineCount(DAY, DAY.plusDays(6)));
+        assertEquals(1, tl.getStats().getEventCount(DAY, DAY));
+    }
+}
@@ -0,0 +1,128 @@
+package cbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskStoreTest {
+    @Test
+    public void testSameAsList() {
+        sameAsList(TaskLayout.OBJECTS);
+    }
+
+    @Test
+    public void testColumnsSameAsList() {
+        sameAsList(TaskLayout.COLUMNS);
+        sameAsList(TaskLayout.OFF_HEAP);
+    }
+
+    private static void sameAsList(TaskLayout layout) {
+        Random random = new Random(14);
+        ArrayList<Task> model = new ArrayList<>();
+        TaskStore store = new TaskStore(model, layout);
+
+        for (int round = 0; round < 2000; round++) {
+            if (model.isEmpty() || random.nextInt(3) > 0) {
+                Task task = new Task("t" + round);
+                model.add(task);
+                store.add(task);
+            } else {
+                int index = random.nextInt(model.size());
+                model.remove(index);
+                store.remove(store.idAt(index));
+            }
+
+            assertEquals(store.size(), model.size());
+            if (model.isEmpty()) {
+                continue;
+            }
+            int index = random.nextInt(model.size());
+            int id = store.idAt(index);
+            if (layout != TaskLayout.OBJECTS) {
+                assertEquals(store.get(id).makeFileFriendly(), model.get(index).makeFileFriendly());
+            } else {
+                assertSame(store.get(id), model.get(index));
+            }
+            assertEquals(store.indexOf(id), index);
+        }
+
+        assertEquals(Arrays.stream(store.toArray()).map(Task::makeFileFriendly).collect(Collectors.toList()),
+                model.stream().map(Task::makeFileFriendly).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSorted() {
+        LocalDateTime time = LocalDateTime.parse("2023-03-01T10:00");
+        ArrayList<Task> tasks = new ArrayList<>(Arrays.asList(new Task("b"), new Deadline("late", time.plusDays(1)),
+                new Task("A"), new Event("early", time, time.plusHours(1)), new Task("a")));
+
+        for (TaskLayout layout : TaskLayout.values()) {
+            TaskStore sorted = new TaskStore(tasks, layout).sorted();
+            assertEquals(Arrays.stream(sorted.toArray()).map(Task::getDesc).collect(Collectors.toList()),
+                    Arrays.asList("A", "a", "b", "early", "late"));
+        }
+    }
+
+    @Test
+    public void testIdsStayAndAscend() {
+        ArrayList<Task> tasks = new ArrayList<>(Arrays.asList(new Task("a"), new Task("b"), new Task("c")));
+        TaskStore store = new TaskStore(tasks, TaskLayout.OBJECTS);
+        int idOfC = store.idAt(2);
+
+        store.remove(store.idAt(0));
+        assertEquals(store.idAt(1), idOfC);
+        assertEquals(store.indexOf(idOfC), 1);
+
+        int idOfD = store.add(new Task("d"));
+        assertTrue(idOfD > idOfC);
+        assertEquals(store.nextId(idOfC), idOfD);
+        assertEquals(store.nextId(idOfD), -1);
+    }
+
+    @Test
+    public void testSource() {
+        TaskStore store = new TaskStore(3, true, TaskLayout.OBJECTS);
+        assertNull(store.get(store.idAt(1)));
+        assertEquals(store.originOf(store.idAt(1)), 1);
+
+        store.remove(store.idAt(0));
+        assertEquals(store.originOf(store.idAt(0)), 1);
+        assertEquals(store.originOf(store.add(new Task("new"))), -1);
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Random random = new Random(15);
+        ArrayList<Task> model = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            model.add(new Task("t" + i));
+        }
+        TaskStore store = new TaskStore(model, TaskLayout.OBJECTS);
+        model = new ArrayList<>(model);
+
+        // small batches update the tree per ID, big ones rebuild it
+        for (int batchSize : new int[] {3, 400, 1, 200}) {
+            int[] ids = random.ints(0, model.size()).distinct().limit(batchSize)
+                    .map(store::idAt)
+                    .toArray();
+            for (int id : ids) {
+                model.remove(store.get(id));
+            }
+            store.removeAll(ids);
+
+            assertEquals(store.size(), model.size());
+            assertEquals(Arrays.asList(store.toArray()), model);
+            int index = random.nextInt(model.size());
+            assertEquals(store.indexOf(store.idAt(index)), index);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Task;
+
+public class ChunkedReaderTest {
+    private static File makeFile(List<String> lines, String lineBreak) throws IOException {
+        File f = File.createTempFile("cbot", ".txt");
+        f.deleteOnExit();
+        Files.write(f.toPath(), (String.join(lineBreak, lines) + lineBreak).getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private static List<String> makeLines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(FileStuff.withCheck((i % 2 == 0)
+                    ? "T ;; X ;; todo " + i + " \u00e9\u6f22"
+                    : "D ;;   ;; deadline " + i + " ;; 2023-03-0" + (1 + i % 9) + "T10:30"));
+        }
+        return lines;
+    }
+
+    private static List<String> describe(LoadResult result) {
+        List<String> descs = new ArrayList<>();
+        for (Task task : result.getTasks()) {
+            descs.add(task.makeFileFriendly());
+        }
+        return descs;
+    }
+
+    @Test
+    public void testSameAsInOrder() throws IOException {
+        File f = makeFile(makeLines(1000), "\n");
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        LoadResult inOrder = FileStuff.readTextInOrder(f);
+        for (int chunkSize : new int[] {1, 7, 100, 1 << 20}) {
+            LoadResult chunked = ChunkedReader.read(f, pool, chunkSize);
+            assertEquals(describe(chunked), describe(inOrder));
+            assertEquals(chunked.getRecordCount(), 1000);
+        }
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testWindowsLineBreaks() throws IOException {
+        File f = makeFile(makeLines(50), "\r\n");
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        LoadResult chunked = ChunkedReader.read(f, pool, 64);
+        assertEquals(chunked.getTasks().size(), 50);
+        assertEquals(chunked.getDamagedCount(), 0);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDamagedLinesReplaced() throws IOException {
+        List<String> lines = makeLines(100);
+        lines.set(10, lines.get(10).replace("todo", "tada"));
+        lines.set(55, "");
+        // torn, so its checksum is gone
+        lines.set(99, lines.get(99).substring(0, 20));
+        File f = makeFile(lines, "\n");
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        LoadResult chunked = ChunkedReader.read(f, pool, 16);
+        assertEquals(chunked.getTasks().size(), 99);
+        assertEquals(chunked.getDamagedCount(), 2);
+        assertEquals(chunked.getTasks().get(10).getDesc(), "(damaged task 11)");
+        assertEquals(chunked.getTasks().get(98).getDesc(), "(damaged task 99)");
+        assertEquals(describe(chunked), describe(FileStuff.readTextInOrder(f)));
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,117 @@
+package cbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+public class CompactorTest {
+    private static String tempPath() throws IOException {
+        File f = File.createTempFile("cbot", ".txt");
+        f.deleteOnExit();
+        new File(f.getPath() + FileStuff.JOURNAL_SUFFIX).deleteOnExit();
+        new File(f.getPath() + FileStuff.JOURNAL_SUFFIX + FileStuff.FOLDING_SUFFIX).deleteOnExit();
+        new File(f.getPath() + FileStuff.NEXT_SUFFIX).deleteOnExit();
+        return f.getPath();
+    }
+
+    private static TaskList addTasks(FileStuff fs, TaskList tl, int count) {
+        for (int i = 1; i <= count; i++) {
+            tl.addTask(new Task("task " + i));
+            if (i % 3 == 0) {
+                tl.delTask(1);
+            }
+            fs.saveFile(tl);
+        }
+
+        return tl;
+    }
+
+    @Test
+    public void testCompactsPastRecords() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = fs.loadFile();
+        Compactor compactor = fs.startCompactor(10, Long.MAX_VALUE);
+
+        addTasks(fs, tl, 100);
+        compactor.awaitIdle();
+        fs.close();
+
+        assertTrue(compactor.getCompactionCount() > 0);
+        assertTrue(fs.getJournalRecords() < 10 + 10 / 3 + 1);
+        assertEquals(new FileStuff(path, true).loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testCompactsPastBytes() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = fs.loadFile();
+        Compactor compactor = fs.startCompactor(Integer.MAX_VALUE, 1);
+
+        addTasks(fs, tl, 5);
+        compactor.awaitIdle();
+        fs.close();
+
+        assertTrue(compactor.getCompactionCount() > 0);
+        assertEquals(new FileStuff(path, true).loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testNoCompactBelowThresholds() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = fs.loadFile();
+        Compactor compactor = fs.startCompactor(1000, Long.MAX_VALUE);
+
+        addTasks(fs, tl, 10);
+        compactor.awaitIdle();
+        fs.close();
+
+        assertEquals(compactor.getCompactionCount(), 0);
+        assertEquals(fs.getJournalRecords(), 13);
+        assertEquals(compactor.getJournalRecords(), 13);
+        assertEquals(compactor.getJournalBytes(), new File(path + FileStuff.JOURNAL_SUFFIX).length());
+    }
+
+    @Test
+    public void testUnfinishedSnapshot() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = addTasks(fs, fs.loadFile(), 10);
+
+        // as if Cbot stopped right after the new save file was written
+        File journal = new File(path + FileStuff.JOURNAL_SUFFIX);
+        assertTrue(journal.renameTo(new File(journal.getPath() + FileStuff.FOLDING_SUFFIX)));
+        new FileStuff(path).exportText(tl, path + FileStuff.NEXT_SUFFIX);
+
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        assertFalse(new File(path + FileStuff.NEXT_SUFFIX).exists());
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testUnfinishedSetAside() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = addTasks(fs, fs.loadFile(), 10);
+
+        // as if Cbot stopped while compacting, before the new save file was written
+        File journal = new File(path + FileStuff.JOURNAL_SUFFIX);
+        assertTrue(journal.renameTo(new File(journal.getPath() + FileStuff.FOLDING_SUFFIX)));
+        addTasks(fs, tl, 5);
+
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        fs.compactJournal();
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        assertEquals(fs.getJournalRecords(), 0);
+    }
+}
@@ -0,0 +1,109 @@
+package cbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+public class ExportFormatTest {
+    private static TaskList makeList() {
+        TaskList tl = new TaskList();
+        tl.addTask(new Task("plain", true));
+        tl.addTask(new Task("commas, \"quotes\" and \\ slashes"));
+        tl.addTask(new Deadline("caf\u00e9 \u6f22", LocalDateTime.parse("2023-03-01T10:00")));
+        tl.addTask(new Event("e", LocalDateTime.parse("2023-03-01T10:00"), LocalDateTime.parse("2023-03-02T12:30:15"),
+                true));
+        return tl;
+    }
+
+    private static TaskList roundTrip(ExportFormat format, TaskList tl) throws IOException {
+        StringWriter sw = new StringWriter();
+        assertEquals(format.write(tl, sw), tl.getCount());
+
+        TaskList imported = new TaskList();
+        assertEquals(format.read(new BufferedReader(new StringReader(sw.toString())), imported), 0);
+        return imported;
+    }
+
+    @Test
+    public void testCsvRoundTrip() throws IOException {
+        TaskList tl = makeList();
+        assertEquals(roundTrip(ExportFormat.CSV, tl).makeFileFriendly(), tl.makeFileFriendly());
+    }
+
+    @Test
+    public void testJsonLinesRoundTrip() throws IOException {
+        TaskList tl = makeList();
+        assertEquals(roundTrip(ExportFormat.JSON_LINES, tl).makeFileFriendly(), tl.makeFileFriendly());
+    }
+
+    @Test
+    public void testTextRoundTrip() throws IOException {
+        TaskList tl = makeList();
+        assertEquals(roundTrip(ExportFormat.TEXT, tl).makeFileFriendly(), tl.makeFileFriendly());
+    }
+
+    @Test
+    public void testCsvLine() throws IOException {
+        TaskList tl = new TaskList();
+        tl.addTask(new Deadline("a, b", LocalDateTime.parse("2023-03-01T10:00")));
+
+        StringWriter sw = new StringWriter();
+        ExportFormat.CSV.write(tl, sw);
+        assertEquals(sw.toString(), "type,done,description,time,end\nD,false,\"a, b\",2023-03-01T10:00,\n");
+    }
+
+    @Test
+    public void testJsonLine() throws IOException {
+        TaskList tl = new TaskList();
+        tl.addTask(new Task("say \"hi\"", true));
+
+        StringWriter sw = new StringWriter();
+        ExportFormat.JSON_LINES.write(tl, sw);
+        assertEquals(sw.toString(), "{\"type\":\"T\",\"done\":true,\"description\":\"say \\\"hi\\\"\"}\n");
+    }
+
+    @Test
+    public void testBadLinesSkipped() throws IOException {
+        String jsonLines = "{\"type\":\"T\",\"description\":\"ok\"}\n"
+                + "not json\n"
+                + "{\"type\":\"D\",\"description\":\"no time\"}\n"
+                + "{\"type\":\"T\",\"description\":\"bad ;; sep\"}\n"
+                + "\n"
+                + "{ \"description\" : \"spaced\\u0021\", \"type\" : \"t\", \"extra\" : 3, \"done\" : null }\n";
+
+        TaskList tl = new TaskList();
+        assertEquals(ExportFormat.JSON_LINES.read(new BufferedReader(new StringReader(jsonLines)), tl), 3);
+        assertEquals(tl.getCount(), 2);
+        assertEquals(tl.getTask(2).getDesc(), "spaced!");
+    }
+
+    @Test
+    public void testCsvQuotedLineBreak() throws IOException {
+        String csv = "T,true,\"two\nlines\",,\nE,false,ev,2023-03-01T10:00,2023-03-01T09:00\nT,false,\"\"\"q\"\"\",,\n";
+
+        TaskList tl = new TaskList();
+        assertEquals(ExportFormat.CSV.read(new BufferedReader(new StringReader(csv)), tl), 2);
+        assertEquals(tl.getCount(), 1);
+        assertEquals(tl.getTask(1).getDesc(), "\"q\"");
+    }
+
+    @Test
+    public void testFromPath() {
+        assertEquals(ExportFormat.fromPath("out/Tasks.CSV"), ExportFormat.CSV);
+        assertEquals(ExportFormat.fromPath("tasks.jsonl"), ExportFormat.JSON_LINES);
+        assertEquals(ExportFormat.fromPath("tasks.txt"), ExportFormat.TEXT);
+        assertNull(ExportFormat.fromPath("tasks.bin"));
+    }
+}
@@ -0,0 +1,461 @@
+package cbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Deadline;
+import cbot.task.Event;
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+public class FileStuffTest {
+    private static String tempPath() throws IOException {
+        File f = File.createTempFile("cbot", ".txt");
+        f.deleteOnExit();
+        new File(f.getPath() + FileStuff.JOURNAL_SUFFIX).deleteOnExit();
+        new File(SaveFormat.BINARY.toPath(f.getPath())).deleteOnExit();
+        new File(SaveFormat.BINARY.toPath(f.getPath()) + FileStuff.JOURNAL_SUFFIX).deleteOnExit();
+        new File(f.getPath() + FileStuff.CORRUPT_SUFFIX).deleteOnExit();
+        new File(f.getPath() + FileStuff.JOURNAL_SUFFIX + FileStuff.CORRUPT_SUFFIX).deleteOnExit();
+        new File(SaveFormat.BINARY.toPath(f.getPath()) + FileStuff.CORRUPT_SUFFIX).deleteOnExit();
+        return f.getPath();
+    }
+
+    private static void deleteShards(String path) {
+        File index = new File(SaveFormat.SHARDED.toPath(path));
+        File[] shardFiles = ShardFormat.getShardDir(index).listFiles();
+        for (File f : (shardFiles == null) ? new File[0] : shardFiles) {
+            f.delete();
+        }
+        ShardFormat.getShardDir(index).delete();
+        index.delete();
+        new File(index.getPath() + FileStuff.JOURNAL_SUFFIX).delete();
+    }
+
+    private static void chop(String path, int bytes) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(path, "rw")) {
+            raf.setLength(raf.length() - bytes);
+        }
+    }
+
+    private static TaskList makeList(FileStuff fs) throws FileNotFoundException {
+        TaskList tl = fs.loadFile();
+        tl.addTask(new Task("b"));
+        tl.addTask(new Deadline("a", TimeStuff.textToDT("2001-01-01")));
+        tl.addTask(new Task("c"));
+        tl.addTask(new Event("e", TimeStuff.textToDT("2001-01-01"), LocalDateTime.parse("2001-01-02T10:30:15")));
+        fs.saveFile(tl);
+
+        tl.mark(1);
+        tl.delTask(3);
+        tl.editTaskDesc(2, "aa");
+        tl.sort();
+        tl.unmark(2);
+        fs.saveFile(tl);
+        return tl;
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        FileStuff fs = new FileStuff(tempPath());
+        TaskList tl = makeList(fs);
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testJournalReplay() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+
+        assertEquals(new File(path).length(), 0L);
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testBatchJournalReplay() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+        tl.addTask(new Task("d"));
+        tl.addTask(new Task("f"));
+        tl.markTasks(Arrays.asList(4, 1, 4));
+        tl.unmarkTasks(Arrays.asList(1, 3));
+        tl.delTasks(Arrays.asList(2, 5));
+        fs.saveFile(tl);
+
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+
+        fs.compact(tl);
+        assertFalse(new File(path + FileStuff.JOURNAL_SUFFIX).exists());
+        assertEquals(new FileStuff(path).loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testBinarySaveLoad() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, SaveFormat.BINARY);
+        TaskList tl = makeList(fs);
+
+        assertTrue(new File(SaveFormat.BINARY.toPath(path)).length() > 0);
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testBinaryMigrate() throws IOException {
+        String path = tempPath();
+        TaskList tl = makeList(new FileStuff(path, true));
+
+        FileStuff fs = new FileStuff(path, SaveFormat.BINARY, true);
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        assertTrue(new File(SaveFormat.BINARY.toPath(path)).exists());
+        assertFalse(new File(path + FileStuff.JOURNAL_SUFFIX).exists());
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testExportText() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, SaveFormat.BINARY);
+        TaskList tl = makeList(fs);
+
+        String textPath = tempPath();
+        fs.exportText(tl, textPath);
+        assertEquals(new FileStuff(textPath).loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testToPath() {
+        assertEquals(SaveFormat.BINARY.toPath("data/cbot_save.txt"), "data/cbot_save.bin");
+        assertEquals(SaveFormat.TEXT.toPath("data.d/cbot_save"), "data.d/cbot_save.txt");
+    }
+
+    @Test
+    public void testNoTempLeft() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path);
+        makeList(fs);
+
+        assertFalse(new File(path + FileStuff.TEMP_SUFFIX).exists());
+        assertNull(fs.getRecoveryNote());
+    }
+
+    @Test
+    public void testOldLinesWithoutChecksum() throws IOException {
+        String path = tempPath();
+        Files.write(Paths.get(path), Arrays.asList("T ;; X ;; old", "D ;;   ;; older ;; 2001-01-01T00:00"));
+
+        FileStuff fs = new FileStuff(path);
+        assertEquals(fs.loadFile().getCount(), 2);
+        assertNull(fs.getRecoveryNote());
+    }
+
+    @Test
+    public void testDamagedLineReplaced() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path);
+        TaskList tl = makeList(fs);
+
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        lines.set(1, lines.get(1).replace("aa", "ab"));
+        Files.write(Paths.get(path), lines);
+
+        TaskList loaded = fs.loadFile();
+        assertEquals(loaded.getCount(), tl.getCount());
+        assertEquals(loaded.getTask(2).getDesc(), "(damaged task 2)");
+        assertEquals(loaded.getTask(3).toString(), tl.getTask(3).toString());
+        assertNotNull(fs.getRecoveryNote());
+        assertTrue(new File(path + FileStuff.CORRUPT_SUFFIX).exists());
+
+        // the damage has been cleaned up
+        assertEquals(fs.loadFile().listTasks(), loaded.listTasks());
+        assertNull(fs.getRecoveryNote());
+    }
+
+    @Test
+    public void testJournalAfterDamagedLine() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = fs.loadFile();
+        for (int i = 1; i <= 8; i++) {
+            tl.addTask(new Task("task " + i));
+        }
+        fs.compact(tl);
+        tl.mark(5);
+        fs.saveFile(tl);
+
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        lines.set(2, lines.get(2).replace("task", "tusk"));
+        Files.write(Paths.get(path), lines);
+
+        TaskList loaded = fs.loadFile();
+        assertNotNull(fs.getRecoveryNote());
+        assertEquals(loaded.getCount(), 8);
+        assertEquals(loaded.getTask(5).toString(), tl.getTask(5).toString());
+        assertEquals(loaded.getTask(6).toString(), tl.getTask(6).toString());
+    }
+
+    @Test
+    public void testTornLineWithoutChecksum() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path);
+        TaskList tl = makeList(fs);
+
+        // the checksum goes first, leaving a line that could pass for one saved before checksums
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        lines.set(lines.size() - 1, lines.get(lines.size() - 1).substring(0, 10));
+        Files.write(Paths.get(path), lines);
+
+        TaskList loaded = fs.loadFile();
+        assertNotNull(fs.getRecoveryNote());
+        assertEquals(loaded.getTask(tl.getCount()).getDesc(), "(damaged task " + tl.getCount() + ")");
+    }
+
+    @Test
+    public void testTornFirstJournalRecord() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = fs.loadFile();
+        tl.addTask(new Task("a whole description"));
+        fs.saveFile(tl);
+        chop(path + FileStuff.JOURNAL_SUFFIX, FileStuff.CHECK_LEN + 1);
+
+        assertEquals(fs.loadFile().getCount(), 0);
+        assertNotNull(fs.getRecoveryNote());
+    }
+
+    @Test
+    public void testTornJournal() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+        tl.addTask(new Task("torn"));
+        fs.saveFile(tl);
+        chop(path + FileStuff.JOURNAL_SUFFIX, 3);
+
+        TaskList loaded = fs.loadFile();
+        assertEquals(loaded.getCount(), tl.getCount() - 1);
+        assertNotNull(fs.getRecoveryNote());
+        assertTrue(new File(path + FileStuff.JOURNAL_SUFFIX + FileStuff.CORRUPT_SUFFIX).exists());
+    }
+
+    @Test
+    public void testTornBinary() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, SaveFormat.BINARY);
+        TaskList tl = makeList(fs);
+        chop(SaveFormat.BINARY.toPath(path), 2);
+
+        TaskList loaded = fs.loadFile();
+        assertEquals(loaded.getCount(), tl.getCount());
+        assertEquals(loaded.getTask(1).toString(), tl.getTask(1).toString());
+        assertEquals(loaded.getTask(tl.getCount()).getDesc(), "(damaged task " + tl.getCount() + ")");
+        assertNotNull(fs.getRecoveryNote());
+    }
+
+    @Test
+    public void testShardedSaveLoad() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, SaveFormat.SHARDED);
+        TaskList tl = makeList(fs);
+
+        File shardDir = ShardFormat.getShardDir(new File(SaveFormat.SHARDED.toPath(path)));
+        assertTrue(new File(shardDir, "2-2001-01.txt").exists());
+        assertTrue(new File(shardDir, "2-todo.txt").exists());
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+
+        // only the shards of the generation in use are kept
+        assertFalse(new File(shardDir, "1-todo.txt").exists());
+        deleteShards(path);
+    }
+
+    @Test
+    public void testShardedMigrate() throws IOException {
+        String path = tempPath();
+        TaskList tl = makeList(new FileStuff(path, true));
+
+        FileStuff fs = new FileStuff(path, SaveFormat.SHARDED, true);
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        assertTrue(new File(SaveFormat.SHARDED.toPath(path)).exists());
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        deleteShards(path);
+    }
+
+    @Test
+    public void testShardedLazyLoad() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, SaveFormat.SHARDED, true);
+        TaskList tl = fs.loadFile();
+        for (int month = 1; month <= 12; month++) {
+            tl.addTask(new Deadline("d" + month, TimeStuff.textToDT(String.format("2001-%02d-15", month))));
+            tl.addTask(new Task("t" + month));
+        }
+        fs.saveFile(tl);
+        fs.compact(tl);
+
+        ShardSource source = ShardFormat.open(new File(SaveFormat.SHARDED.toPath(path)), 4);
+        TaskList lazy = new TaskList(source);
+        assertEquals(source.getLoadedShardCount(), 0);
+
+        assertEquals(lazy.listBefore(TimeStuff.textToDT("2001-01-31")).size(), 1);
+        assertEquals(source.getLoadedShardCount(), 1);
+        assertTrue(lazy.listAfter(TimeStuff.textToDT("2001-11-30")).get(0).startsWith(" 23. [D][ ] d12"));
+        LocalDateTime october = TimeStuff.textToDT("2001-10-01");
+        assertEquals(lazy.listNext(october, 3), tl.listNext(october, 3));
+
+        // whole list read, but only as many shards as the budget allows are kept
+        assertEquals(lazy.listTasks(), tl.listTasks());
+        assertTrue(source.getLoadedShardCount() <= 2);
+
+        lazy.mark(2);
+        lazy.delTask(1);
+        assertEquals(lazy.getTask(1).toString(), "[T][X] t1");
+        assertEquals(lazy.getCount(), 23);
+        deleteShards(path);
+    }
+
+    @Test
+    public void testLazyTextLoad() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path);
+        TaskList tl = fs.loadFile();
+        for (int i = 0; i < OffsetSource.PAGE_SIZE * 3; i++) {
+            tl.addTask((i % 2 == 0)
+                    ? new Task("t" + i)
+                    : new Deadline("d" + i, TimeStuff.textToDT("2001-01-01").plusDays(i)));
+        }
+        fs.saveFile(tl);
+
+        OffsetSource source = OffsetSource.open(new File(path));
+        TaskList lazy = new TaskList(source);
+        assertEquals(lazy.getCount(), tl.getCount());
+        assertEquals(source.getCachedPageCount(), 0);
+
+        int num = OffsetSource.PAGE_SIZE + 2;
+        assertEquals(lazy.getTask(num).toString(), tl.getTask(num).toString());
+        assertEquals(source.getCachedPageCount(), 1);
+
+        assertEquals(lazy.listTasks(), tl.listTasks());
+        assertEquals(lazy.listAfter(TimeStuff.textToDT("2001-01-01")), tl.listAfter(TimeStuff.textToDT("2001-01-01")));
+        assertEquals(source.getDamagedCount(), 0);
+
+        // the list no longer depends on the file once it is saved over
+        lazy.mark(1);
+        lazy.delTask(2);
+        fs.saveFile(lazy);
+        assertEquals(lazy.listTasks(), fs.loadFile().listTasks());
+        source.close();
+    }
+
+    @Test
+    public void testLazyTextJournalReplay() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+        fs.compact(tl);
+        tl.addTask(new Task("after compaction"));
+        fs.saveFile(tl);
+
+        FileStuff lazyFs = new FileStuff(path, true);
+        lazyFs.setLazy(true);
+        assertEquals(lazyFs.loadFile().listTasks(), tl.listTasks());
+        lazyFs.close();
+    }
+
+    @Test
+    public void testBlankLinesSameWhenLazy() throws IOException {
+        String path = tempPath();
+        Files.write(Paths.get(path), Arrays.asList(FileStuff.withCheck("T ;;   ;; one"), "", "  ",
+                FileStuff.withCheck("T ;;   ;; two"), "\t", FileStuff.withCheck("T ;;   ;; three")));
+        Files.write(Paths.get(path + FileStuff.JOURNAL_SUFFIX),
+                Arrays.asList(FileStuff.withCheck(TaskList.LOG_MARK + " ;; 3")));
+
+        TaskList eager = new FileStuff(path, true).loadFile();
+        FileStuff lazyFs = new FileStuff(path, true);
+        lazyFs.setLazy(true);
+        TaskList lazy = lazyFs.loadFile();
+
+        assertEquals(eager.getCount(), 3);
+        assertEquals(eager.getTask(3).toString(), "[T][X] three");
+        assertEquals(lazy.listTasks(), eager.listTasks());
+        assertNull(lazyFs.getRecoveryNote());
+        lazyFs.close();
+    }
+
+    @Test
+    public void testLazyDamageNoted() throws IOException {
+        String path = tempPath();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+        fs.compact(tl);
+
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        lines.set(1, lines.get(1).replace("aa", "ab"));
+        Files.write(Paths.get(path), lines);
+
+        FileStuff lazyFs = new FileStuff(path, true);
+        lazyFs.setLazy(true);
+        TaskList lazy = lazyFs.loadFile();
+        assertNull(lazyFs.getRecoveryNote());
+
+        // the damage turns up once its page is read
+        assertEquals(lazy.getTask(2).getDesc(), "(damaged task 2)");
+        assertNotNull(lazyFs.getRecoveryNote());
+        assertTrue(new File(path + FileStuff.CORRUPT_SUFFIX).exists());
+
+        // and the next save writes the list out whole, placeholder and all
+        lazy.mark(1);
+        lazyFs.saveFile(lazy);
+        assertFalse(new File(path + FileStuff.JOURNAL_SUFFIX).exists());
+        assertEquals(new FileStuff(path).loadFile().listTasks(), lazy.listTasks());
+        lazyFs.close();
+    }
+
+    @Test
+    public void testCompactDamaged() throws IOException {
+        String path = tempPath();
+        new File(path + FileStuff.JOURNAL_SUFFIX + FileStuff.CORRUPT_SUFFIX).deleteOnExit();
+        FileStuff fs = new FileStuff(path, true);
+        TaskList tl = makeList(fs);
+        fs.compact(tl);
+        tl.addTask(new Task("new"));
+        fs.saveFile(tl);
+
+        // damaged after loading, while the live list is still whole
+        List<String> lines = Files.readAllLines(Paths.get(path));
+        lines.set(1, lines.get(1).replace("aa", "ab"));
+        Files.write(Paths.get(path), lines);
+
+        fs.compactJournal();
+        assertNotNull(fs.getRecoveryNote());
+        assertTrue(new File(path + FileStuff.CORRUPT_SUFFIX).exists());
+
+        tl.mark(1);
+        fs.saveFile(tl);
+        assertFalse(new File(path + FileStuff.JOURNAL_SUFFIX).exists());
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+        assertNull(fs.getRecoveryNote());
+    }
+}
@@ -0,0 +1,78 @@
+package cbot.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times loading a big text save file, line by line and in parallel chunks on 1, 2, 4, ... threads,
+ * up to the number of cores. Not a test; run it with "gradlew loadBenchmark".
+ * The optional arguments are the number of tasks (default 1,000,000) and the number of runs (default 5).
+ */
+public class LoadBenchmark {
+    public static void main(String[] args) throws IOException {
+        int taskCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        File f = File.createTempFile("cbot-bench", ".txt");
+        f.deleteOnExit();
+        writeTasks(f, taskCount);
+        System.out.printf("%,d tasks, %,d bytes, %d cores%n",
+                taskCount, f.length(), Runtime.getRuntime().availableProcessors());
+
+        report("in order", time(runs, () -> FileStuff.readTextInOrder(f)));
+
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            report(threads + " thread(s)",
+                    time(runs, () -> ChunkedReader.read(f, pool, ChunkedReader.DEFAULT_CHUNK_SIZE)));
+            pool.shutdown();
+        }
+    }
+
+    private static void writeTasks(File f, int taskCount) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < taskCount; i++) {
+                String record;
+                switch (i % 3) {
+                case 0:
+                    record = "T ;; X ;; todo task number " + i;
+                    break;
+                case 1:
+                    record = "D ;;   ;; deadline " + i + " ;; 2023-0" + (1 + i % 9) + "-1" + (i % 9) + "T10:30";
+                    break;
+                default:
+                    record = "E ;;   ;; event " + i + " ;; 2023-03-01T10:00 ;; 2023-03-01T12:00";
+                    break;
+                }
+                w.write(FileStuff.withCheck(record));
+                w.write("\n");
+            }
+        }
+    }
+
+    private static long time(int runs, Load load) throws IOException {
+        // the first run only warms up
+        load.run();
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            load.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best / 1_000_000;
+    }
+
+    private static void report(String name, long millis) {
+        System.out.printf("%-12s %6d ms%n", name, millis);
+    }
+
+    private interface Load {
+        LoadResult run() throws IOException;
+    }
+}
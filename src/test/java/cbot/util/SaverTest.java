@@ -0,0 +1,92 @@
+package cbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import cbot.task.Task;
+import cbot.task.TaskList;
+
+public class SaverTest {
+    private static FileStuff tempFile(boolean isJournaled) throws IOException {
+        File f = File.createTempFile("cbot", ".txt");
+        f.deleteOnExit();
+        new File(f.getPath() + FileStuff.JOURNAL_SUFFIX).deleteOnExit();
+        return new FileStuff(f.getPath(), isJournaled);
+    }
+
+    private static TaskList addAndMark(TaskList tl, Saver saver, int count) {
+        for (int i = 1; i <= count; i++) {
+            synchronized (tl) {
+                tl.addTask(new Task("task " + i));
+                if (i % 2 == 0) {
+                    tl.mark(i);
+                }
+            }
+            saver.requestSave();
+        }
+
+        return tl;
+    }
+
+    private static void assertSaved(FileStuff fs, TaskList tl) throws FileNotFoundException {
+        assertEquals(fs.loadFile().listTasks(), tl.listTasks());
+    }
+
+    @Test
+    public void testSync() throws IOException {
+        FileStuff fs = tempFile(true);
+        TaskList tl = fs.loadFile();
+        Saver saver = new Saver(fs, tl, Durability.SYNC, 0, 0);
+
+        addAndMark(tl, saver, 10);
+        assertEquals(saver.getWriteCount(), 10);
+        assertSaved(fs, tl);
+    }
+
+    @Test
+    public void testGroupCoalesces() throws IOException {
+        FileStuff fs = tempFile(true);
+        TaskList tl = fs.loadFile();
+        Saver saver = new Saver(fs, tl, Durability.GROUP, 60_000, 1_000);
+
+        addAndMark(tl, saver, 200);
+        saver.close();
+        assertEquals(saver.getWriteCount(), 1);
+        assertSaved(fs, tl);
+    }
+
+    @Test
+    public void testGroupMaxPending() throws IOException, InterruptedException {
+        FileStuff fs = tempFile(false);
+        TaskList tl = fs.loadFile();
+        Saver saver = new Saver(fs, tl, Durability.GROUP, 60_000, 10);
+
+        addAndMark(tl, saver, 100);
+        for (int i = 0; i < 100 && saver.getWriteCount() == 0; i++) {
+            Thread.sleep(50);
+        }
+
+        // written long before the 60s delay is up
+        assertTrue(saver.getWriteCount() > 0);
+        saver.close();
+        assertSaved(fs, tl);
+    }
+
+    @Test
+    public void testAsyncNoLostUpdates() throws IOException {
+        FileStuff fs = tempFile(true);
+        TaskList tl = fs.loadFile();
+        Saver saver = new Saver(fs, tl, Durability.ASYNC, 0, 0);
+
+        addAndMark(tl, saver, 500);
+        saver.close();
+        assertTrue(saver.getWriteCount() <= 500);
+        assertSaved(fs, tl);
+    }
+}
@@ -1,8 +1,10 @@
 package cbot.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 import org.junit.jupiter.api.Test;
 
@@ -76,4 +78,25 @@ public class TimeStuffTest {
     public void testText() {
         assertEquals(TimeStuff.dtToText(one), "01/01/01, 0000");
     }
+
+    @Test
+    public void testIsoToDT() {
+        assertEquals(TimeStuff.isoToDT("2001-01-01T00:00", 0, 16), one);
+    }
+
+    @Test
+    public void testIsoToDTSeconds() {
+        assertEquals(TimeStuff.isoToDT("x 2001-01-01T00:00:30 x", 2, 21), one.plusSeconds(30));
+    }
+
+    @Test
+    public void testIsoToDTFallback() {
+        assertEquals(TimeStuff.isoToDT("2001-01-01T00:00:00.5", 0, 21), one.plusNanos(500_000_000));
+    }
+
+    @Test
+    public void testIsoToDTOutOfRange() {
+        assertThrows(DateTimeParseException.class, () -> TimeStuff.isoToDT("2001-13-01T00:00", 0, 16));
+        assertThrows(DateTimeParseException.class, () -> TimeStuff.isoToDT("2001-01-01T25:00:00", 0, 19));
+    }
 }